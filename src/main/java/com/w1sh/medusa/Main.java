@@ -1,6 +1,7 @@
 package com.w1sh.medusa;
 
 import com.w1sh.medusa.core.Instance;
+import com.w1sh.medusa.services.CardSnapshotService;
 import com.w1sh.medusa.services.SlashCommandService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -17,10 +18,12 @@ public class Main implements CommandLineRunner {
     private static final Logger log = LoggerFactory.getLogger(Main.class);
     private final Instance instance;
     private final SlashCommandService slashCommandService;
+    private final CardSnapshotService cardSnapshotService;
 
-    public Main(Instance instance, SlashCommandService slashCommandService) {
+    public Main(Instance instance, SlashCommandService slashCommandService, CardSnapshotService cardSnapshotService) {
         this.instance = instance;
         this.slashCommandService = slashCommandService;
+        this.cardSnapshotService = cardSnapshotService;
     }
 
     public static void main(String[] args) {
@@ -30,6 +33,7 @@ public class Main implements CommandLineRunner {
 
     @Override
     public void run(String... args) {
+        cardSnapshotService.restore().subscribe();
         instance.initialize();
         for (int i = 0; i < args.length; ++i) {
             log.info("args[{}]: {}", i, args[i]);
@@ -40,6 +44,7 @@ public class Main implements CommandLineRunner {
     public void onDestroy() {
         log.info("Shutting down Medusa - live for {}", Instance.getUptime());
         slashCommandService.saveAllCached();
+        cardSnapshotService.save();
         log.info("Shutdown complete");
     }
 
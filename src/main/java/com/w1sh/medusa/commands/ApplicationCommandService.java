@@ -1,5 +1,6 @@
 package com.w1sh.medusa.commands;
 
+import discord4j.core.event.domain.interaction.ButtonInteractEvent;
 import discord4j.core.event.domain.interaction.SlashCommandEvent;
 import discord4j.discordjson.json.ApplicationCommandRequest;
 import reactor.core.publisher.Mono;
@@ -10,5 +11,9 @@ public interface ApplicationCommandService {
 
     Mono<Void> reply(SlashCommandEvent event);
 
+    default Mono<Void> onButtonInteract(ButtonInteractEvent event) {
+        return Mono.empty();
+    }
+
     String getName();
 }
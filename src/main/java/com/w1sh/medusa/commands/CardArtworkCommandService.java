@@ -2,6 +2,7 @@ package com.w1sh.medusa.commands;
 
 import com.w1sh.medusa.rest.resources.Card;
 import com.w1sh.medusa.services.CardService;
+import com.w1sh.medusa.utils.Messages;
 import discord4j.core.event.domain.interaction.SlashCommandEvent;
 import discord4j.core.object.command.ApplicationCommandInteractionOption;
 import discord4j.core.object.command.ApplicationCommandInteractionOptionValue;
@@ -47,11 +48,14 @@ public final class CardArtworkCommandService implements ApplicationCommandServic
                 .map(ApplicationCommandInteractionOptionValue::asString).orElse("");
 
         if (StringUtils.hasText(name)) {
-            return cardService.getCardByName(name)
-                    .map(this::buildArtworkEmbed)
-                    .flatMap(embed -> event.reply(spec -> spec.addEmbed(embed)));
+            return cardService.findCardByName(name)
+                    .flatMap(result -> event.reply(spec -> {
+                        spec.addEmbed(buildArtworkEmbed(result.getCard()));
+                        if (result.isStale()) spec.setContent(Messages.SERVED_FROM_CACHE);
+                    }))
+                    .onErrorResume(Messages::isScryfallError, e -> event.replyEphemeral(Messages.scryfallError(e, () -> cardService.suggestNames(name))));
         } else {
-            return event.replyEphemeral("Failed to find the card you requested, be more specific or try another card.");
+            return event.replyEphemeral(Messages.CARD_NOT_FOUND);
         }
     }
 
@@ -1,10 +1,17 @@
 package com.w1sh.medusa.commands;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.w1sh.medusa.rest.resources.Card;
+import com.w1sh.medusa.rest.resources.ListResponse;
 import com.w1sh.medusa.services.CardService;
+import com.w1sh.medusa.utils.Messages;
+import discord4j.core.event.domain.interaction.ButtonInteractEvent;
 import discord4j.core.event.domain.interaction.SlashCommandEvent;
 import discord4j.core.object.command.ApplicationCommandInteractionOption;
 import discord4j.core.object.command.ApplicationCommandInteractionOptionValue;
+import discord4j.core.object.component.ActionRow;
+import discord4j.core.object.component.Button;
 import discord4j.core.spec.EmbedCreateSpec;
 import discord4j.discordjson.json.ApplicationCommandOptionData;
 import discord4j.discordjson.json.ApplicationCommandRequest;
@@ -13,18 +20,27 @@ import discord4j.rest.util.Color;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Consumer;
 
 @Component
 public final class CardSearchCommandService implements ApplicationCommandService{
 
     private static final String COMMAND_NAME = "search";
+    private static final int PAGE_SIZE = 5;
+    private static final int SCRYFALL_PAGE_SIZE = 175;
 
     private final CardService cardService;
+    private final Cache<String, SearchCursor> cursors;
 
     public CardSearchCommandService(CardService cardService) {
         this.cardService = cardService;
+        this.cursors = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofMinutes(15))
+                .maximumSize(1_000)
+                .build();
     }
 
     @Override
@@ -45,10 +61,28 @@ public final class CardSearchCommandService implements ApplicationCommandService
     public Mono<Void> reply(SlashCommandEvent event) {
         final String name = event.getOption("name").flatMap(ApplicationCommandInteractionOption::getValue)
                 .map(ApplicationCommandInteractionOptionValue::asString).orElse("");
+        final SearchCursor cursor = new SearchCursor(event.getInteraction().getId().asString(), name);
+        cursors.put(cursor.id, cursor);
+
+        return fetchPage(cursor, 0)
+                .flatMap(cards -> event.reply(spec -> spec.addEmbed(buildSearchEmbed(cursor, 0, cards))
+                        .setComponents(buildPageButtons(cursor, 0))))
+                .onErrorResume(Messages::isScryfallError, e -> event.replyEphemeral(Messages.searchError(e)));
+    }
+
+    @Override
+    public Mono<Void> onButtonInteract(ButtonInteractEvent event) {
+        final String[] customId = event.getCustomId().split(":");
+        final SearchCursor cursor = cursors.getIfPresent(customId[1]);
+        if (cursor == null) {
+            return event.replyEphemeral("This search has expired, run the command again to keep browsing.");
+        }
+        final int page = Integer.parseInt(customId[2]);
 
-        return cardService.getCardsByName(name)
-                .doOnNext(this::filterList)
-                .flatMap(list -> event.reply(spec -> spec.addEmbed(buildSearchEmbed(list))));
+        return fetchPage(cursor, page)
+                .flatMap(cards -> event.edit(spec -> spec.addEmbed(buildSearchEmbed(cursor, page, cards))
+                        .setComponents(buildPageButtons(cursor, page))))
+                .onErrorResume(Messages::isScryfallError, e -> event.replyEphemeral(Messages.searchError(e)));
     }
 
     @Override
@@ -56,19 +90,71 @@ public final class CardSearchCommandService implements ApplicationCommandService
         return COMMAND_NAME;
     }
 
-    private Consumer<EmbedCreateSpec> buildSearchEmbed(List<Card> cards) {
+    // only the window shown is decoded out of the scryfall page, the cursor keeps just the next page uris and the total
+    private Mono<List<Card>> fetchPage(SearchCursor cursor, int page) {
+        final int offset = page * PAGE_SIZE;
+        final int scryfallPage = offset / SCRYFALL_PAGE_SIZE;
+        final int scryfallOffset = offset % SCRYFALL_PAGE_SIZE;
+
+        final Mono<ListResponse<Card>> response;
+        if (scryfallPage == 0) {
+            response = cardService.getCardsByName(cursor.query, scryfallOffset, PAGE_SIZE);
+        } else if (scryfallPage <= cursor.nextPages.size()) {
+            response = cardService.getCardsPage(cursor.nextPages.get(scryfallPage - 1), scryfallOffset, PAGE_SIZE);
+        } else {
+            return Mono.just(List.of());
+        }
+        return response.doOnNext(listResponse -> cursor.update(scryfallPage, listResponse))
+                .map(ListResponse::getData)
+                .doOnNext(cardService::cache)
+                .defaultIfEmpty(List.of());
+    }
+
+    private Consumer<EmbedCreateSpec> buildSearchEmbed(SearchCursor cursor, int page, List<Card> cards) {
         return embedCreateSpec -> {
             embedCreateSpec.setColor(Color.GREEN);
-            for (int i = 0; i < Math.min(cards.size(), 5); i++) {
-                embedCreateSpec.addField(String.format("%d - %s - %s", (i+1), cards.get(i).getName(), cards.get(i).getTypeLine()),
-                        cards.get(i).getOracleText(), false);
+            if (cards.isEmpty()) embedCreateSpec.setDescription("No cards found on this page.");
+            for (int i = 0; i < cards.size(); i++) {
+                final Card card = cards.get(i);
+                embedCreateSpec.addField(String.format("%d - %s - %s", page * PAGE_SIZE + i + 1, card.getName(),
+                                card.getTypeLine() == null ? "" : card.getTypeLine()),
+                        card.getOracleText() == null ? Messages.ZERO_WIDTH_SPACE : card.getOracleText(), false);
             }
             embedCreateSpec.setFooter(String.format("%s results found - Page %s of %s",
-                    cards.size(), 1, 1), null);
+                    cursor.totalCards, page + 1, cursor.getPageCount()), null);
         };
     }
 
-    private void filterList(List<Card> cards) {
-        cards.removeIf(card -> card.getName() == null || card.getTypeLine() == null || card.getOracleText() == null);
+    private ActionRow buildPageButtons(SearchCursor cursor, int page) {
+        return ActionRow.of(
+                Button.secondary(String.format("%s:%s:%d", COMMAND_NAME, cursor.id, page - 1), "Previous")
+                        .disabled(page <= 0),
+                Button.secondary(String.format("%s:%s:%d", COMMAND_NAME, cursor.id, page + 1), "Next")
+                        .disabled(page + 1 >= cursor.getPageCount()));
+    }
+
+    private static final class SearchCursor {
+
+        private final String id;
+        private final String query;
+        private final List<String> nextPages;
+        private volatile int totalCards;
+
+        private SearchCursor(String id, String query) {
+            this.id = id;
+            this.query = query;
+            this.nextPages = new CopyOnWriteArrayList<>();
+        }
+
+        private synchronized void update(int scryfallPage, ListResponse<Card> response) {
+            if (response.getTotalCards() != null) totalCards = response.getTotalCards();
+            if (response.isHasMore() && response.getNextPage() != null && nextPages.size() == scryfallPage) {
+                nextPages.add(response.getNextPage());
+            }
+        }
+
+        private int getPageCount() {
+            return Math.max(1, (totalCards + PAGE_SIZE - 1) / PAGE_SIZE);
+        }
     }
 }
@@ -1,7 +1,9 @@
 package com.w1sh.medusa.commands;
 
 import com.w1sh.medusa.rest.resources.Card;
+import com.w1sh.medusa.rest.resources.Price;
 import com.w1sh.medusa.services.CardService;
+import com.w1sh.medusa.services.PriceService;
 import com.w1sh.medusa.utils.Messages;
 import discord4j.core.event.domain.interaction.SlashCommandEvent;
 import discord4j.core.object.command.ApplicationCommandInteractionOption;
@@ -23,9 +25,11 @@ public final class DetailsCommandService implements ApplicationCommandService {
     private static final String COMMAND_NAME = "details";
 
     private final CardService cardService;
+    private final PriceService priceService;
 
-    public DetailsCommandService(CardService cardService) {
+    public DetailsCommandService(CardService cardService, PriceService priceService) {
         this.cardService = cardService;
+        this.priceService = priceService;
     }
 
     @Override
@@ -48,15 +52,20 @@ public final class DetailsCommandService implements ApplicationCommandService {
                 .map(ApplicationCommandInteractionOptionValue::asString).orElse("");
 
         if (StringUtils.hasText(name)) {
-            return cardService.getCardByName(name)
-                    .map(this::buildDetailsEmbed)
-                    .flatMap(embed -> event.reply(spec -> spec.addEmbed(embed)));
+            return cardService.findCardByName(name)
+                    .flatMap(result -> priceService.getPrice(result.getCard())
+                            .map(price -> buildDetailsEmbed(result.getCard(), price))
+                            .flatMap(embed -> event.reply(spec -> {
+                                spec.addEmbed(embed);
+                                if (result.isStale()) spec.setContent(Messages.SERVED_FROM_CACHE);
+                            })))
+                    .onErrorResume(Messages::isScryfallError, e -> event.replyEphemeral(Messages.scryfallError(e, () -> cardService.suggestNames(name))));
         } else {
-            return event.replyEphemeral("Failed to find the card you requested, be more specific or try another card.");
+            return event.replyEphemeral(Messages.CARD_NOT_FOUND);
         }
     }
 
-    private Consumer<EmbedCreateSpec> buildDetailsEmbed(Card card) {
+    private Consumer<EmbedCreateSpec> buildDetailsEmbed(Card card, Price price) {
         return embedCreateSpec -> {
             embedCreateSpec.setColor(Color.GREEN);
             embedCreateSpec.setThumbnail(card.getImage().getSmall());
@@ -72,6 +81,8 @@ public final class DetailsCommandService implements ApplicationCommandService {
                                 card.getPower(),
                                 card.getToughness()), true);
             }
+            embedCreateSpec.addField("USD", String.format("%s (foil %s)", price.getUsd(), price.getUsdFoil()), true);
+            embedCreateSpec.addField("EUR", String.format("%s (foil %s)", price.getEur(), price.getEurFoil()), true);
         };
     }
 
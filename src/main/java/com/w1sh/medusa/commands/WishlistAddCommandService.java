@@ -2,6 +2,7 @@ package com.w1sh.medusa.commands;
 
 import com.w1sh.medusa.services.CardService;
 import com.w1sh.medusa.services.WishlistService;
+import com.w1sh.medusa.utils.Messages;
 import discord4j.core.event.domain.interaction.SlashCommandEvent;
 import discord4j.core.object.command.ApplicationCommandInteractionOption;
 import discord4j.core.object.command.ApplicationCommandInteractionOptionValue;
@@ -50,6 +51,7 @@ public final class WishlistAddCommandService implements ApplicationCommandServic
                 .map(Tuple2::getT2)
                 .flatMap(wishlistService::save)
                 .flatMap(w -> event.replyEphemeral("Done"))
+                .onErrorResume(Messages::isScryfallError, e -> event.replyEphemeral(Messages.scryfallError(e, () -> cardService.suggestNames(name))))
                 .then();
     }
 
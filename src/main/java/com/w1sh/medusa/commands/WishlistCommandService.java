@@ -1,6 +1,7 @@
 package com.w1sh.medusa.commands;
 
 import com.w1sh.medusa.data.Wishlist;
+import com.w1sh.medusa.rest.resources.Card;
 import com.w1sh.medusa.services.CardService;
 import com.w1sh.medusa.services.WishlistService;
 import discord4j.core.event.domain.interaction.SlashCommandEvent;
@@ -12,6 +13,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Mono;
 
+import java.util.Map;
 import java.util.function.Consumer;
 
 @Component
@@ -39,8 +41,12 @@ public final class WishlistCommandService implements ApplicationCommandService {
     @Override
     public Mono<Void> reply(SlashCommandEvent event) {
         return wishlistService.findByUserId(event.getInteraction().getUser().getId().asString())
-                .flatMap(wishlist -> event.reply(spec -> spec.addEmbed(buildWishlistEmbed(wishlist))))
-                .onErrorResume(throwable -> Mono.fromRunnable(() -> log.error("Failed to list all playlists of user", throwable)))
+                .zipWhen(wishlist -> cardService.getCardsByIds(wishlist.getCards()))
+                .flatMap(tuple -> event.reply(spec -> spec.addEmbed(buildWishlistEmbed(tuple.getT1(), tuple.getT2()))))
+                .onErrorResume(throwable -> {
+                    log.error("Failed to list all playlists of user", throwable);
+                    return event.replyEphemeral("Failed to load your wishlist, try again in a few minutes.");
+                })
                 .then();
     }
 
@@ -49,13 +55,19 @@ public final class WishlistCommandService implements ApplicationCommandService {
         return COMMAND_NAME;
     }
 
-    private Consumer<EmbedCreateSpec> buildWishlistEmbed(Wishlist wishlist) {
+    private Consumer<EmbedCreateSpec> buildWishlistEmbed(Wishlist wishlist, Map<String, Card> cards) {
         return embedCreateSpec -> {
             embedCreateSpec.setColor(Color.GREEN);
             embedCreateSpec.setTitle("Your wishlist");
 
-            for (String card : wishlist.getCards()) {
-                embedCreateSpec.addField(String.format("**%s**", card), card, false);
+            for (String id : wishlist.getCards()) {
+                final Card card = cards.get(id);
+                if (card == null) {
+                    embedCreateSpec.addField(String.format("**%s**", id), id, false);
+                } else {
+                    embedCreateSpec.addField(String.format("**%s**", card.getName()),
+                            String.format("%s - %s", card.getSet(), card.getTypeLine()), false);
+                }
             }
         };
     }
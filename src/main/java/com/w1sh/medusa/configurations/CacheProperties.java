@@ -0,0 +1,45 @@
+package com.w1sh.medusa.configurations;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+public final class CacheProperties {
+
+    @Value("${medusa.cache.cards.refresh-after:720}")
+    private String cardsRefreshAfter;
+    @Value("${medusa.cache.unique-prints.refresh-after:360}")
+    private String uniquePrintsRefreshAfter;
+    @Value("${medusa.cache.stale-window:24}")
+    private String staleWindow;
+    @Value("${medusa.cache.cards.max-weight:64}")
+    private String cardsMaxWeight;
+    @Value("${medusa.cache.unique-prints.max-weight:128}")
+    private String uniquePrintsMaxWeight;
+
+    public Duration getCardsRefreshAfter() {
+        return Duration.ofMinutes(Long.parseLong(cardsRefreshAfter));
+    }
+
+    public Duration getUniquePrintsRefreshAfter() {
+        return Duration.ofMinutes(Long.parseLong(uniquePrintsRefreshAfter));
+    }
+
+    public Duration getStaleWindow() {
+        return Duration.ofHours(Long.parseLong(staleWindow));
+    }
+
+    public long getCardsMaxWeight() {
+        return megabytes(cardsMaxWeight);
+    }
+
+    public long getUniquePrintsMaxWeight() {
+        return megabytes(uniquePrintsMaxWeight);
+    }
+
+    private static long megabytes(String value) {
+        return Long.parseLong(value) * 1024 * 1024;
+    }
+}
@@ -2,23 +2,42 @@ package com.w1sh.medusa.configurations;
 
 import com.w1sh.medusa.hazelcast.HazelcastStoreService;
 import discord4j.common.JacksonResources;
+import discord4j.discordjson.json.ChannelData;
 import discord4j.discordjson.json.GuildData;
+import discord4j.discordjson.json.MemberData;
 import discord4j.discordjson.json.MessageData;
+import discord4j.discordjson.json.PresenceData;
+import discord4j.discordjson.json.RoleData;
+import discord4j.discordjson.json.UserData;
+import discord4j.discordjson.json.VoiceStateData;
 import discord4j.store.api.mapping.MappingStoreService;
 import discord4j.store.api.service.StoreService;
 import discord4j.store.jdk.JdkStoreService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
+import org.springframework.util.StringUtils;
+
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Configuration
 public class DiscordConfiguration {
 
     private static final Logger log = LoggerFactory.getLogger(DiscordConfiguration.class);
+    private static final Map<String, Class<?>> HAZELCAST_STORE_TYPES = Stream.of(MessageData.class, GuildData.class,
+            MemberData.class, UserData.class, ChannelData.class, RoleData.class, PresenceData.class, VoiceStateData.class)
+            .collect(Collectors.toUnmodifiableMap(Class::getSimpleName, Function.identity()));
+
+    @Value("${medusa.hazelcast.stores:MessageData,GuildData}")
+    private String hazelcastStores;
 
     @Bean
     public JacksonResources jacksonResources(){
@@ -29,9 +48,14 @@ public class DiscordConfiguration {
     @ConditionalOnProperty(value = "medusa.hazelcast.enabled", havingValue = "true")
     @Primary
     public StoreService mappingStoreService(HazelcastStoreService hazelcastStoreService) {
-        log.info("Initialing hazelcast store service");
+        final Class<?>[] types = Stream.of(StringUtils.commaDelimitedListToStringArray(hazelcastStores))
+                .map(String::trim)
+                .filter(StringUtils::hasText)
+                .map(DiscordConfiguration::hazelcastStoreType)
+                .toArray(Class<?>[]::new);
+        log.info("Initialing hazelcast store service for {}", hazelcastStores);
         return MappingStoreService.create()
-                .setMappings(hazelcastStoreService, MessageData.class, GuildData.class)
+                .setMappings(hazelcastStoreService, types)
                 .setFallback(new JdkStoreService());
     }
 
@@ -41,4 +65,13 @@ public class DiscordConfiguration {
         log.info("Initialing default JDK store service");
         return new JdkStoreService();
     }
+
+    private static Class<?> hazelcastStoreType(String name) {
+        final Class<?> type = HAZELCAST_STORE_TYPES.get(name);
+        if (type == null) {
+            log.error("Unsupported hazelcast store type {}, expected one of {}", name, HAZELCAST_STORE_TYPES.keySet());
+            throw new IllegalArgumentException(String.format("Unsupported hazelcast store type %s", name));
+        }
+        return type;
+    }
 }
@@ -4,13 +4,8 @@ import com.hazelcast.client.HazelcastClient;
 import com.hazelcast.client.config.ClientConfig;
 import com.hazelcast.config.NearCacheConfig;
 import com.hazelcast.core.HazelcastInstance;
-import com.hazelcast.nio.serialization.ByteArraySerializer;
-import com.w1sh.medusa.hazelcast.serializers.GuildDataSerializer;
-import com.w1sh.medusa.hazelcast.serializers.MessageDataSerializer;
 import com.w1sh.medusa.utils.Serializers;
 import discord4j.common.JacksonResources;
-import discord4j.discordjson.json.GuildData;
-import discord4j.discordjson.json.MessageData;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -25,8 +20,7 @@ public class HazelcastConfiguration {
 
     private static final Logger log = LoggerFactory.getLogger(HazelcastConfiguration.class);
 
-    private final ByteArraySerializer<MessageData> messageDataSerializer;
-    private final ByteArraySerializer<GuildData> guildDataSerializer;
+    private final JacksonResources jacksonResources;
 
     @Value(value = "${medusa.hazelcast.address}")
     private String address;
@@ -35,8 +29,7 @@ public class HazelcastConfiguration {
     private String nearCache;
 
     public HazelcastConfiguration(JacksonResources jacksonResources) {
-        this.messageDataSerializer = new MessageDataSerializer(jacksonResources);
-        this.guildDataSerializer = new GuildDataSerializer(jacksonResources);
+        this.jacksonResources = jacksonResources;
     }
 
     @Bean
@@ -52,10 +45,7 @@ public class HazelcastConfiguration {
         }
         log.info("Attempting to connect to hazelcast cluster in {}", address);
         final ClientConfig config = new ClientConfig();
-        config.getSerializationConfig().getSerializerConfigs().add(
-                Serializers.of(MessageData.class, messageDataSerializer));
-        config.getSerializationConfig().getSerializerConfigs().add(
-                Serializers.of(GuildData.class, guildDataSerializer));
+        Serializers.register(config.getSerializationConfig(), jacksonResources);
         config.getNetworkConfig().addAddress(address);
         config.setProperty("hazelcast.logging.type", "slf4j");
         config.getConnectionStrategyConfig().getConnectionRetryConfig().setClusterConnectTimeoutMillis(5000);
@@ -0,0 +1,43 @@
+package com.w1sh.medusa.configurations;
+
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.logging.LoggingMeterRegistry;
+import io.micrometer.core.instrument.logging.LoggingRegistryConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class MetricsConfiguration {
+
+    private static final Logger log = LoggerFactory.getLogger(MetricsConfiguration.class);
+
+    @Value("${medusa.metrics.step:5}")
+    private String step;
+
+    @Bean
+    public MeterRegistry meterRegistry() {
+        log.info("Setting up metrics registry logging every {} minutes", step);
+        final LoggingRegistryConfig config = new LoggingRegistryConfig() {
+            @Override
+            public String get(String key) {
+                return null;
+            }
+
+            @Override
+            public Duration step() {
+                return Duration.ofMinutes(Long.parseLong(step));
+            }
+        };
+        final MeterRegistry registry = new LoggingMeterRegistry(config, Clock.SYSTEM);
+        // reactor netty publishes its connection pool metrics to the global registry
+        Metrics.addRegistry(registry);
+        return registry;
+    }
+}
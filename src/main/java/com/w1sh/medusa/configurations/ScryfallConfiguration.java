@@ -0,0 +1,58 @@
+package com.w1sh.medusa.configurations;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+@Configuration
+public class ScryfallConfiguration {
+
+    private static final Logger log = LoggerFactory.getLogger(ScryfallConfiguration.class);
+
+    @Value("${medusa.scryfall.http.max-connections:16}")
+    private String maxConnections;
+    @Value("${medusa.scryfall.http.pending-acquire-max-count:256}")
+    private String pendingAcquireMaxCount;
+    @Value("${medusa.scryfall.http.pending-acquire-timeout:10}")
+    private String pendingAcquireTimeout;
+    @Value("${medusa.scryfall.http.max-idle-time:60}")
+    private String maxIdleTime;
+    @Value("${medusa.scryfall.http.max-life-time:600}")
+    private String maxLifeTime;
+    @Value("${medusa.scryfall.http.http2:false}")
+    private String http2;
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider scryfallConnectionProvider() {
+        log.info("Setting up Scryfall connection pool with {} connections and {} seconds of idle time", maxConnections, maxIdleTime);
+        return ConnectionProvider.builder("scryfall")
+                .maxConnections(Integer.parseInt(maxConnections))
+                .pendingAcquireMaxCount(Integer.parseInt(pendingAcquireMaxCount))
+                .pendingAcquireTimeout(Duration.ofSeconds(Long.parseLong(pendingAcquireTimeout)))
+                .maxIdleTime(Duration.ofSeconds(Long.parseLong(maxIdleTime)))
+                .maxLifeTime(Duration.ofSeconds(Long.parseLong(maxLifeTime)))
+                .evictInBackground(Duration.ofSeconds(Long.parseLong(maxIdleTime)))
+                .lifo()
+                .metrics(true)
+                .build();
+    }
+
+    @Bean
+    public HttpClient scryfallHttpClient(ConnectionProvider scryfallConnectionProvider) {
+        final HttpClient httpClient = HttpClient.create(scryfallConnectionProvider)
+                .compress(true)
+                .keepAlive(true);
+        if (Boolean.parseBoolean(http2)) {
+            log.info("Enabling HTTP/2 with HTTP/1.1 fallback for Scryfall requests");
+            return httpClient.secure().protocol(HttpProtocol.H2, HttpProtocol.HTTP11);
+        }
+        return httpClient;
+    }
+}
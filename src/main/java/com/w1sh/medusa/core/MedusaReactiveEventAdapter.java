@@ -5,6 +5,7 @@ import com.w1sh.medusa.data.SlashCommand;
 import com.w1sh.medusa.services.SlashCommandService;
 import discord4j.core.event.ReactiveEventAdapter;
 import discord4j.core.event.domain.guild.GuildCreateEvent;
+import discord4j.core.event.domain.interaction.ButtonInteractEvent;
 import discord4j.core.event.domain.interaction.SlashCommandEvent;
 import discord4j.core.event.domain.lifecycle.DisconnectEvent;
 import discord4j.core.event.domain.lifecycle.ReadyEvent;
@@ -49,6 +50,14 @@ public final class MedusaReactiveEventAdapter extends ReactiveEventAdapter {
         return slashCommandServiceFactory.getService(event.getCommandName()).reply(event);
     }
 
+    @NonNull
+    @Override
+    public Publisher<?> onButtonInteract(@NonNull ButtonInteractEvent event) {
+        final String commandName = event.getCustomId().split(":", 2)[0];
+        return Mono.justOrEmpty(slashCommandServiceFactory.getService(commandName))
+                .flatMap(service -> service.onButtonInteract(event));
+    }
+
     @NonNull
     @Override
     public Publisher<?> onDisconnect(DisconnectEvent event) {
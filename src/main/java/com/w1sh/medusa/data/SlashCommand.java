@@ -2,6 +2,8 @@ package com.w1sh.medusa.data;
 
 import discord4j.common.util.Snowflake;
 import discord4j.core.event.domain.interaction.SlashCommandEvent;
+import discord4j.core.object.command.ApplicationCommandInteractionOption;
+import discord4j.core.object.command.ApplicationCommandInteractionOptionValue;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
 
@@ -20,12 +22,16 @@ public class SlashCommand {
 
     private String name;
 
+    private String cardName;
+
     private Instant createdOn;
 
     public SlashCommand(SlashCommandEvent event) {
         this.userId = event.getInteraction().getUser().getId().asString();
         this.guildId = event.getInteraction().getGuildId().map(Snowflake::asString).orElse("");
         this.name = event.getCommandName();
+        this.cardName = event.getOption("name").flatMap(ApplicationCommandInteractionOption::getValue)
+                .map(ApplicationCommandInteractionOptionValue::asString).orElse(null);
         this.createdOn = Instant.now();
     }
 
@@ -61,6 +67,14 @@ public class SlashCommand {
         this.name = name;
     }
 
+    public String getCardName() {
+        return cardName;
+    }
+
+    public void setCardName(String cardName) {
+        this.cardName = cardName;
+    }
+
     public Instant getCreatedOn() {
         return createdOn;
     }
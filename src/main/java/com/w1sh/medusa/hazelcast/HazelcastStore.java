@@ -1,95 +1,124 @@
 package com.w1sh.medusa.hazelcast;
 
 import com.hazelcast.map.IMap;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.Predicates;
 import discord4j.store.api.Store;
-import discord4j.store.api.util.WithinRangePredicate;
 import org.reactivestreams.Publisher;
 import org.springframework.lang.NonNull;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 import reactor.util.function.Tuple2;
 
+import java.time.Duration;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 public final class HazelcastStore<K extends Comparable<K>, V> implements Store<K,V> {
 
     public static final int TTL = 60;
+    public static final String KEY_ATTRIBUTE = "__key";
 
     private final IMap<K, V> cache;
+    private final int batchSize;
+    private final Duration batchWindow;
+    private final int batchConcurrency;
 
-    public HazelcastStore(IMap<K, V> cache) {
+    public HazelcastStore(IMap<K, V> cache, int batchSize, Duration batchWindow, int batchConcurrency) {
         this.cache = cache;
+        this.batchSize = batchSize;
+        this.batchWindow = batchWindow;
+        this.batchConcurrency = batchConcurrency;
     }
 
     @NonNull
     @Override
     public Mono<Void> save(@NonNull K key, @NonNull V value) {
-        return Mono.fromRunnable(() -> cache.set(key, value, TTL, TimeUnit.MINUTES));
+        return Mono.fromCompletionStage(() -> cache.setAsync(key, value, TTL, TimeUnit.MINUTES));
     }
 
     @NonNull
     @Override
     public Mono<Void> save(@NonNull Publisher<Tuple2<K, V>> entryStream) {
-        return Flux.from(entryStream).doOnNext(t -> save(t.getT1(), t.getT2())).then();
+        // entries written in bulk rely on the map ttl configured by the store service,
+        // buffer timeout ignores backpressure so closed batches queue up while earlier ones are still being written
+        return Flux.from(entryStream)
+                .bufferTimeout(batchSize, batchWindow)
+                .onBackpressureBuffer()
+                .flatMap(batch -> Mono.fromCompletionStage(cache.putAllAsync(batch.stream()
+                        .collect(Collectors.toMap(Tuple2::getT1, Tuple2::getT2, (first, second) -> second)))), batchConcurrency)
+                .then();
     }
 
     @NonNull
     @Override
     public Mono<Void> delete(@NonNull K id) {
-        return Mono.fromRunnable(() -> cache.delete(id));
+        return Mono.fromCompletionStage(() -> cache.removeAsync(id)).then();
     }
 
     @NonNull
     @Override
     public Mono<Void> delete(@NonNull Publisher<K> ids) {
-        return Flux.from(ids).doOnNext(cache::delete).then();
+        return Flux.from(ids).flatMap(this::delete, batchConcurrency).then();
     }
 
     @NonNull
     @Override
     public Mono<Void> deleteInRange(@NonNull K start, @NonNull K end) {
-        return keys().filter(new WithinRangePredicate<>(start, end)).doOnNext(cache::delete).then();
+        return blocking(Mono.fromRunnable(() -> cache.removeAll(inRange(start, end))));
     }
 
     @NonNull
     @Override
     public Mono<Void> deleteAll() {
-        return Mono.fromRunnable(cache::clear);
+        return blocking(Mono.fromRunnable(cache::clear));
     }
 
     @NonNull
     @Override
     public Mono<Void> invalidate() {
-        return Mono.fromRunnable(cache::clear);
+        return blocking(Mono.fromRunnable(cache::clear));
     }
 
     @NonNull
     @Override
     public Mono<V> find(@NonNull K id) {
-        return Mono.fromCallable(() -> cache.getOrDefault(id, null));
+        return Mono.fromCompletionStage(() -> cache.getAsync(id));
     }
 
     @NonNull
     @Override
     public Flux<V> findInRange(@NonNull K start, @NonNull K end) {
-        return keys().filter(new WithinRangePredicate<>(start, end)).flatMap(this::find);
+        return blocking(Mono.fromCallable(() -> cache.values(inRange(start, end)))).flatMapIterable(Function.identity());
     }
 
     @NonNull
     @Override
     public Mono<Long> count() {
-        return Mono.fromCallable(() -> Long.valueOf(cache.size()));
+        return blocking(Mono.fromCallable(() -> Long.valueOf(cache.size())));
     }
 
     @NonNull
     @Override
     public Flux<K> keys() {
-        return Flux.fromIterable(cache.keySet());
+        return blocking(Mono.fromCallable(cache::keySet)).flatMapIterable(Function.identity());
     }
 
     @NonNull
     @Override
     public Flux<V> values() {
-        return Flux.fromIterable(cache.values());
+        return blocking(Mono.fromCallable(cache::values)).flatMapIterable(Function.identity());
+    }
+
+    // same bounds as discord4j's WithinRangePredicate, start inclusive and end exclusive, evaluated by the cluster on the key index
+    private Predicate<K, V> inRange(K start, K end) {
+        return Predicates.and(Predicates.greaterEqual(KEY_ATTRIBUTE, start), Predicates.lessThan(KEY_ATTRIBUTE, end));
+    }
+
+    // the imap has no async variant of these calls, so they are kept off gateway and event loop threads
+    private static <T> Mono<T> blocking(Mono<T> call) {
+        return call.subscribeOn(Schedulers.boundedElastic());
     }
 }
@@ -1,24 +1,42 @@
 package com.w1sh.medusa.hazelcast;
 
 import com.austinv11.servicer.WireService;
+import com.hazelcast.config.IndexConfig;
+import com.hazelcast.config.IndexType;
+import com.hazelcast.config.InvalidConfigurationException;
+import com.hazelcast.config.MapConfig;
 import com.hazelcast.core.HazelcastInstance;
 import discord4j.store.api.Store;
 import discord4j.store.api.primitive.ForwardingStore;
 import discord4j.store.api.primitive.LongObjStore;
 import discord4j.store.api.service.StoreService;
 import discord4j.store.api.util.StoreContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
 @Component
 @WireService(StoreService.class)
 @ConditionalOnProperty(value = "medusa.hazelcast.enabled", havingValue = "true")
 public final class HazelcastStoreService implements StoreService {
 
+    private static final Logger log = LoggerFactory.getLogger(HazelcastStoreService.class);
     private final HazelcastInstance instance;
 
+    @Value("${medusa.hazelcast.batch.size:500}")
+    private String batchSize;
+    @Value("${medusa.hazelcast.batch.window:50}")
+    private String batchWindow;
+    @Value("${medusa.hazelcast.batch.concurrency:4}")
+    private String batchConcurrency;
+
     public HazelcastStoreService(HazelcastInstance instance) {
         this.instance = instance;
     }
@@ -31,7 +49,16 @@ public final class HazelcastStoreService implements StoreService {
     @NonNull
     @Override
     public <K extends Comparable<K>, V> Store<K, V> provideGenericStore(@NonNull Class<K> keyClass, Class<V> valueClass) {
-        return new HazelcastStore<K, V>(instance.getMap(valueClass.getSimpleName()));
+        final String name = valueClass.getSimpleName();
+        try {
+            instance.getConfig().addMapConfig(new MapConfig(name)
+                    .setTimeToLiveSeconds((int) TimeUnit.MINUTES.toSeconds(HazelcastStore.TTL))
+                    .addIndexConfig(new IndexConfig(IndexType.SORTED, HazelcastStore.KEY_ATTRIBUTE)));
+        } catch (InvalidConfigurationException e) {
+            log.warn("Hazelcast cluster already has a different configuration for map {}, keeping it instead of the store defaults", name);
+        }
+        return new HazelcastStore<K, V>(instance.getMap(name), Integer.parseInt(batchSize),
+                Duration.ofMillis(Long.parseLong(batchWindow)), Integer.parseInt(batchConcurrency));
     }
 
     @Override
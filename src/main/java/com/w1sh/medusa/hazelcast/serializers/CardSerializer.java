@@ -0,0 +1,20 @@
+package com.w1sh.medusa.hazelcast.serializers;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.w1sh.medusa.rest.resources.Card;
+import discord4j.common.JacksonResources;
+
+public final class CardSerializer extends SmileSerializer<Card> {
+
+    public CardSerializer(JacksonResources jacksonResources) {
+        super(jacksonResources, Card.class, mapper -> mapper
+                .setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.NONE)
+                .setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY));
+    }
+
+    @Override
+    public int getTypeId() {
+        return 3;
+    }
+}
@@ -0,0 +1,18 @@
+package com.w1sh.medusa.hazelcast.serializers;
+
+import discord4j.common.JacksonResources;
+import discord4j.discordjson.json.ChannelData;
+import org.springframework.stereotype.Component;
+
+@Component
+public final class ChannelDataSerializer extends SmileSerializer<ChannelData> {
+
+    public ChannelDataSerializer(JacksonResources jacksonResources) {
+        super(jacksonResources, ChannelData.class);
+    }
+
+    @Override
+    public int getTypeId() {
+        return 6;
+    }
+}
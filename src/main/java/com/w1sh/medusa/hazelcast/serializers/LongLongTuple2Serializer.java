@@ -0,0 +1,29 @@
+package com.w1sh.medusa.hazelcast.serializers;
+
+import com.hazelcast.nio.serialization.ByteArraySerializer;
+import discord4j.store.api.util.LongLongTuple2;
+
+import java.nio.ByteBuffer;
+
+// member and voice state stores are keyed by (guild id, user id) pairs, which discord4j does not make serializable
+public final class LongLongTuple2Serializer implements ByteArraySerializer<LongLongTuple2> {
+
+    @Override
+    public byte[] write(LongLongTuple2 object) {
+        return ByteBuffer.allocate(2 * Long.BYTES)
+                .putLong(object.getT1())
+                .putLong(object.getT2())
+                .array();
+    }
+
+    @Override
+    public LongLongTuple2 read(byte[] buffer) {
+        final ByteBuffer wrapped = ByteBuffer.wrap(buffer);
+        return LongLongTuple2.of(wrapped.getLong(), wrapped.getLong());
+    }
+
+    @Override
+    public int getTypeId() {
+        return 10;
+    }
+}
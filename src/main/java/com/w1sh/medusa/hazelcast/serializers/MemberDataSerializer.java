@@ -0,0 +1,18 @@
+package com.w1sh.medusa.hazelcast.serializers;
+
+import discord4j.common.JacksonResources;
+import discord4j.discordjson.json.MemberData;
+import org.springframework.stereotype.Component;
+
+@Component
+public final class MemberDataSerializer extends SmileSerializer<MemberData> {
+
+    public MemberDataSerializer(JacksonResources jacksonResources) {
+        super(jacksonResources, MemberData.class);
+    }
+
+    @Override
+    public int getTypeId() {
+        return 4;
+    }
+}
@@ -0,0 +1,18 @@
+package com.w1sh.medusa.hazelcast.serializers;
+
+import discord4j.common.JacksonResources;
+import discord4j.discordjson.json.PresenceData;
+import org.springframework.stereotype.Component;
+
+@Component
+public final class PresenceDataSerializer extends SmileSerializer<PresenceData> {
+
+    public PresenceDataSerializer(JacksonResources jacksonResources) {
+        super(jacksonResources, PresenceData.class);
+    }
+
+    @Override
+    public int getTypeId() {
+        return 8;
+    }
+}
@@ -0,0 +1,18 @@
+package com.w1sh.medusa.hazelcast.serializers;
+
+import discord4j.common.JacksonResources;
+import discord4j.discordjson.json.RoleData;
+import org.springframework.stereotype.Component;
+
+@Component
+public final class RoleDataSerializer extends SmileSerializer<RoleData> {
+
+    public RoleDataSerializer(JacksonResources jacksonResources) {
+        super(jacksonResources, RoleData.class);
+    }
+
+    @Override
+    public int getTypeId() {
+        return 7;
+    }
+}
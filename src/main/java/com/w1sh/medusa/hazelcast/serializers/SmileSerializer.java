@@ -0,0 +1,60 @@
+package com.w1sh.medusa.hazelcast.serializers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.fasterxml.jackson.dataformat.smile.SmileParser;
+import com.hazelcast.nio.serialization.ByteArraySerializer;
+import discord4j.common.JacksonResources;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.function.UnaryOperator;
+
+public abstract class SmileSerializer<T> implements ByteArraySerializer<T> {
+
+    private static final byte SMILE_FORMAT = 1;
+    // entries written before the version byte existed are plain json objects, older builds can't read smile entries
+    // so the upgrade is one way: mixed clusters must not run older nodes against maps written by newer ones
+    private static final byte LEGACY_JSON_FORMAT = '{';
+
+    private final ObjectMapper jsonMapper;
+    private final ObjectMapper smileMapper;
+    private final Class<T> type;
+
+    protected SmileSerializer(JacksonResources jacksonResources, Class<T> type) {
+        this(jacksonResources, type, UnaryOperator.identity());
+    }
+
+    protected SmileSerializer(JacksonResources jacksonResources, Class<T> type, UnaryOperator<ObjectMapper> customizer) {
+        final SmileFactory smileFactory = SmileFactory.builder()
+                .disable(SmileGenerator.Feature.WRITE_HEADER)
+                .disable(SmileParser.Feature.REQUIRE_HEADER)
+                .build();
+        this.jsonMapper = customizer.apply(jacksonResources.getObjectMapper().copy());
+        this.smileMapper = customizer.apply(JacksonResources.INITIALIZER
+                .andThen(JacksonResources.HANDLE_UNKNOWN_PROPERTIES)
+                .apply(new ObjectMapper(smileFactory)));
+        this.type = type;
+    }
+
+    @Override
+    public byte[] write(T object) throws IOException {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        output.write(SMILE_FORMAT);
+        smileMapper.writeValue(output, object);
+        return output.toByteArray();
+    }
+
+    @Override
+    public T read(byte[] buffer) throws IOException {
+        switch (buffer[0]) {
+            case SMILE_FORMAT:
+                return smileMapper.readValue(buffer, 1, buffer.length - 1, type);
+            case LEGACY_JSON_FORMAT:
+                return jsonMapper.readValue(buffer, type);
+            default:
+                throw new IOException(String.format("Unknown serialization format %d for %s", buffer[0], type.getSimpleName()));
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.w1sh.medusa.hazelcast.serializers;
+
+import discord4j.common.JacksonResources;
+import discord4j.discordjson.json.UserData;
+import org.springframework.stereotype.Component;
+
+@Component
+public final class UserDataSerializer extends SmileSerializer<UserData> {
+
+    public UserDataSerializer(JacksonResources jacksonResources) {
+        super(jacksonResources, UserData.class);
+    }
+
+    @Override
+    public int getTypeId() {
+        return 5;
+    }
+}
@@ -0,0 +1,18 @@
+package com.w1sh.medusa.hazelcast.serializers;
+
+import discord4j.common.JacksonResources;
+import discord4j.discordjson.json.VoiceStateData;
+import org.springframework.stereotype.Component;
+
+@Component
+public final class VoiceStateDataSerializer extends SmileSerializer<VoiceStateData> {
+
+    public VoiceStateDataSerializer(JacksonResources jacksonResources) {
+        super(jacksonResources, VoiceStateData.class);
+    }
+
+    @Override
+    public int getTypeId() {
+        return 9;
+    }
+}
@@ -0,0 +1,81 @@
+package com.w1sh.medusa.index;
+
+import com.w1sh.medusa.rest.resources.Card;
+import com.w1sh.medusa.rest.resources.Price;
+import com.w1sh.medusa.utils.Cards;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public final class CardIndex {
+
+    private static final CardIndex EMPTY = new CardIndex(Collections.emptyMap(), Collections.emptyMap(), Instant.EPOCH);
+
+    private final Map<String, CompactCard> cardsById;
+    private final Map<String, CompactCard> cardsByName;
+    private final Instant loadedOn;
+
+    private CardIndex(Map<String, CompactCard> cardsById, Map<String, CompactCard> cardsByName, Instant loadedOn) {
+        this.cardsById = cardsById;
+        this.cardsByName = cardsByName;
+        this.loadedOn = loadedOn;
+    }
+
+    public static CardIndex empty() {
+        return EMPTY;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public Optional<Card> getById(String id) {
+        return Optional.ofNullable(cardsById.get(id)).map(CompactCard::toCard);
+    }
+
+    public Optional<Price> getPriceById(String id) {
+        return Optional.ofNullable(cardsById.get(id)).map(CompactCard::getPrice);
+    }
+
+    public Optional<Card> getByName(String name) {
+        return Optional.ofNullable(cardsByName.get(Cards.normalize(name))).map(CompactCard::toCard);
+    }
+
+    public Set<String> getNames() {
+        return cardsById.values().stream().map(CompactCard::getName).collect(Collectors.toSet());
+    }
+
+    public int size() {
+        return cardsById.size();
+    }
+
+    public Instant getLoadedOn() {
+        return loadedOn;
+    }
+
+    public static final class Builder {
+
+        private final Map<String, CompactCard> cardsById = new HashMap<>();
+        private final Map<String, CompactCard> cardsByName = new HashMap<>();
+
+        private Builder() {}
+
+        public Builder add(Card card) {
+            if (card.getId() == null || card.getName() == null) return this;
+            final CompactCard compactCard = CompactCard.of(card);
+            cardsById.put(card.getId(), compactCard);
+            cardsByName.putIfAbsent(Cards.normalize(card.getName()), compactCard);
+            cardsByName.putIfAbsent(Cards.normalize(Cards.frontFace(card.getName())), compactCard);
+            return this;
+        }
+
+        public CardIndex build() {
+            return new CardIndex(cardsById, cardsByName, Instant.now());
+        }
+    }
+}
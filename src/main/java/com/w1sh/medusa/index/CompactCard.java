@@ -0,0 +1,169 @@
+package com.w1sh.medusa.index;
+
+import com.w1sh.medusa.rest.resources.Card;
+import com.w1sh.medusa.rest.resources.Image;
+import com.w1sh.medusa.rest.resources.Price;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+public final class CompactCard {
+
+    private static final String SCRYFALL_URI_PREFIX = "https://scryfall.com/card/";
+    private static final String PRINTS_URI_PREFIX = "https://api.scryfall.com/cards/search?order=released&q=oracleid%3A";
+    private static final String ABSOLUTE_URI_PREFIX = "https://";
+    private static final String SMALL_IMAGE = "/small/";
+    private static final String NORMAL_IMAGE = "/normal/";
+    private static final String ART_CROP_IMAGE = "/art_crop/";
+
+    // rough shallow sizes on a 64 bit jvm with compressed oops and compact strings
+    private static final int CARD_BYTES = 80;
+    private static final int IMAGE_BYTES = 32;
+    private static final int PRICE_BYTES = 32;
+    private static final int STRING_BYTES = 40;
+    private static final int LIST_BYTES = 40;
+    private static final int REFERENCE_BYTES = 4;
+
+    private final String id;
+    private final String uri;
+    private final String manaCost;
+    private final String artist;
+    private final String name;
+    private final String set;
+    private final String power;
+    private final String toughness;
+    private final String typeLine;
+    private final String oracleText;
+    private final String flavorText;
+    private final Price price;
+    private final String uniquePrintsUri;
+    // image uris only differ by their size segment, so a shared host prefix and a single path are enough
+    private final String imagePrefix;
+    private final String imagePath;
+    private final Image image;
+
+    private CompactCard(Card card) {
+        this.id = card.getId();
+        this.uri = stripPrefix(card.getUri(), SCRYFALL_URI_PREFIX);
+        this.manaCost = intern(card.getManaCost());
+        this.artist = intern(card.getArtist());
+        this.name = card.getName();
+        this.set = intern(card.getSet());
+        this.power = intern(card.getPower());
+        this.toughness = intern(card.getToughness());
+        this.typeLine = intern(card.getTypeLine());
+        this.oracleText = card.getOracleText();
+        this.flavorText = card.getFlavorText();
+        this.price = card.getPrice();
+        this.uniquePrintsUri = stripPrefix(card.getUniquePrintsUri(), PRINTS_URI_PREFIX);
+
+        final Image cardImage = card.getImage();
+        final int sizeIndex = cardImage == null || cardImage.getSmall() == null ? -1 : cardImage.getSmall().indexOf(SMALL_IMAGE);
+        if (sizeIndex >= 0 && isSplittable(cardImage, sizeIndex)) {
+            this.imagePrefix = intern(cardImage.getSmall().substring(0, sizeIndex));
+            this.imagePath = cardImage.getSmall().substring(sizeIndex + SMALL_IMAGE.length());
+            this.image = null;
+        } else {
+            this.imagePrefix = null;
+            this.imagePath = null;
+            this.image = cardImage;
+        }
+    }
+
+    public static CompactCard of(Card card) {
+        return new CompactCard(card);
+    }
+
+    public static List<CompactCard> of(List<Card> cards) {
+        return cards.stream().map(CompactCard::of).collect(Collectors.toUnmodifiableList());
+    }
+
+    public static List<Card> toCards(List<CompactCard> cards) {
+        return cards.stream().map(CompactCard::toCard).collect(Collectors.toList());
+    }
+
+    public static int weigh(List<CompactCard> cards) {
+        int weight = LIST_BYTES + REFERENCE_BYTES * cards.size();
+        for (CompactCard card : cards) {
+            weight += card.weigh();
+        }
+        return weight;
+    }
+
+    // a card is rebuilt on every hit and never retained, so the compact form is all the cache holds and weighs
+    public Card toCard() {
+        final Card card = new Card();
+        card.setId(id);
+        card.setUri(restorePrefix(uri, SCRYFALL_URI_PREFIX));
+        card.setManaCost(manaCost);
+        card.setArtist(artist);
+        card.setName(name);
+        card.setSet(set);
+        card.setPower(power);
+        card.setToughness(toughness);
+        card.setTypeLine(typeLine);
+        card.setOracleText(oracleText);
+        card.setFlavorText(flavorText);
+        card.setPrice(price);
+        card.setUniquePrintsUri(restorePrefix(uniquePrintsUri, PRINTS_URI_PREFIX));
+        if (imagePath != null) {
+            final Image cardImage = new Image();
+            cardImage.setSmall(imagePrefix + SMALL_IMAGE + imagePath);
+            cardImage.setNormal(imagePrefix + NORMAL_IMAGE + imagePath);
+            cardImage.setArtwork(imagePrefix + ART_CROP_IMAGE + imagePath);
+            card.setImage(cardImage);
+        } else {
+            card.setImage(image);
+        }
+        return card;
+    }
+
+    // interned strings are shared between cards and left out of the estimate
+    public int weigh() {
+        int weight = CARD_BYTES + weigh(id) + weigh(uri) + weigh(name) + weigh(oracleText) + weigh(flavorText)
+                + weigh(uniquePrintsUri) + weigh(imagePath);
+        if (image != null) {
+            weight += IMAGE_BYTES + weigh(image.getSmall()) + weigh(image.getNormal()) + weigh(image.getArtwork());
+        }
+        if (price != null) {
+            weight += PRICE_BYTES + weigh(price.getEur()) + weigh(price.getEurFoil()) + weigh(price.getUsd())
+                    + weigh(price.getUsdFoil());
+        }
+        return weight;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Price getPrice() {
+        return price;
+    }
+
+    private static boolean isSplittable(Image image, int sizeIndex) {
+        final String prefix = image.getSmall().substring(0, sizeIndex);
+        final String path = image.getSmall().substring(sizeIndex + SMALL_IMAGE.length());
+        return (prefix + NORMAL_IMAGE + path).equals(image.getNormal())
+                && (prefix + ART_CROP_IMAGE + path).equals(image.getArtwork());
+    }
+
+    private static String stripPrefix(String value, String prefix) {
+        return value != null && value.startsWith(prefix) ? value.substring(prefix.length()) : value;
+    }
+
+    private static String restorePrefix(String value, String prefix) {
+        return value == null || value.isEmpty() || value.startsWith(ABSOLUTE_URI_PREFIX) ? value : prefix + value;
+    }
+
+    private static String intern(String value) {
+        return value == null ? null : value.intern();
+    }
+
+    private static int weigh(String value) {
+        return value == null ? 0 : STRING_BYTES + value.length();
+    }
+}
@@ -0,0 +1,92 @@
+package com.w1sh.medusa.index;
+
+import com.w1sh.medusa.utils.Cards;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+public final class FuzzyNameIndex {
+
+    private static final String PADDING = "  ";
+
+    private final double minSimilarity;
+    private final Map<String, Entry> entries;
+    private final Map<String, Set<String>> postings;
+
+    public FuzzyNameIndex(double minSimilarity) {
+        this.minSimilarity = minSimilarity;
+        this.entries = new ConcurrentHashMap<>();
+        this.postings = new ConcurrentHashMap<>();
+    }
+
+    public boolean add(String name) {
+        final String normalized = Cards.normalize(name);
+        if (normalized.isEmpty()) return false;
+        final Set<String> trigrams = trigrams(normalized);
+        if (entries.putIfAbsent(normalized, new Entry(name, trigrams.size())) != null) return false;
+        for (String trigram : trigrams) {
+            postings.computeIfAbsent(trigram, k -> ConcurrentHashMap.newKeySet()).add(normalized);
+        }
+        return true;
+    }
+
+    public Optional<String> resolve(String query) {
+        return resolve(query, minSimilarity);
+    }
+
+    public Optional<String> resolve(String query, double minSimilarity) {
+        final String normalized = Cards.normalize(query);
+        final Entry exact = entries.get(normalized);
+        if (exact != null) return Optional.of(exact.name);
+
+        final Set<String> trigrams = trigrams(normalized);
+        final Map<String, Integer> matches = new HashMap<>();
+        for (String trigram : trigrams) {
+            final Set<String> names = postings.get(trigram);
+            if (names == null) continue;
+            for (String name : names) {
+                matches.merge(name, 1, Integer::sum);
+            }
+        }
+
+        Entry best = null;
+        double bestSimilarity = minSimilarity;
+        for (Map.Entry<String, Integer> match : matches.entrySet()) {
+            final Entry entry = entries.get(match.getKey());
+            final double similarity = 2.0 * match.getValue() / (trigrams.size() + entry.trigrams);
+            if (similarity > bestSimilarity || (similarity == bestSimilarity && best != null && entry.name.length() < best.name.length())) {
+                best = entry;
+                bestSimilarity = similarity;
+            }
+        }
+        return Optional.ofNullable(best).map(entry -> entry.name);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private static Set<String> trigrams(String normalized) {
+        final String padded = PADDING + normalized + " ";
+        final Set<String> trigrams = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            trigrams.add(padded.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+
+    private static final class Entry {
+
+        private final String name;
+        private final int trigrams;
+
+        private Entry(String name, int trigrams) {
+            this.name = name;
+            this.trigrams = trigrams;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.w1sh.medusa.index;
+
+import com.w1sh.medusa.utils.Cards;
+
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Collectors;
+
+public final class PrefixNameIndex {
+
+    private final NavigableMap<String, String> names;
+
+    public PrefixNameIndex() {
+        this.names = new ConcurrentSkipListMap<>();
+    }
+
+    public boolean add(String name) {
+        final String normalized = Cards.normalize(name);
+        return !normalized.isEmpty() && names.putIfAbsent(normalized, name) == null;
+    }
+
+    public List<String> complete(String prefix, int limit) {
+        final String normalized = Cards.normalize(prefix);
+        return names.subMap(normalized, true, normalized + Character.MAX_VALUE, false)
+                .values()
+                .stream()
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    public int size() {
+        return names.size();
+    }
+}
@@ -1,19 +1,28 @@
 package com.w1sh.medusa.repos;
 
 import com.w1sh.medusa.data.SlashCommand;
+import org.bson.Document;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.StringOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Instant;
 import java.util.List;
 
 @Repository
 public class SlashCommandMongoRepository implements SlashCommandRepository {
 
     private static final Logger log = LoggerFactory.getLogger(SlashCommandMongoRepository.class);
+    // only these commands resolve their name option as a card, search takes a free text scryfall query
+    private static final List<String> CARD_LOOKUP_COMMANDS = List.of("details", "image", "artwork", "wishlist-add", "wishlist-remove");
     private final ReactiveMongoTemplate template;
 
     public SlashCommandMongoRepository(ReactiveMongoTemplate template) {
@@ -29,4 +38,15 @@ public class SlashCommandMongoRepository implements SlashCommandRepository {
                 .onErrorResume(t -> Mono.fromRunnable(() -> log.error("Failed to save batch of events", t)))
                 .subscribe();
     }
+
+    public Flux<String> findTopCardNames(Instant since, int limit) {
+        final Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("createdOn").gte(since).and("name").in(CARD_LOOKUP_COMMANDS).and("cardName").ne(null)),
+                Aggregation.project().and(StringOperators.valueOf("cardName").toLower()).as("cardName"),
+                Aggregation.group("cardName").count().as("count"),
+                Aggregation.sort(Sort.Direction.DESC, "count"),
+                Aggregation.limit(limit));
+        return template.aggregate(aggregation, SlashCommand.class, Document.class)
+                .map(document -> document.getString("_id"));
+    }
 }
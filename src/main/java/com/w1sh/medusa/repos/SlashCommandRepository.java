@@ -1,8 +1,10 @@
 package com.w1sh.medusa.repos;
 
 import com.w1sh.medusa.data.SlashCommand;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Instant;
 import java.util.List;
 
 public interface SlashCommandRepository {
@@ -10,4 +12,6 @@ public interface SlashCommandRepository {
     Mono<Long> countAll();
 
     void saveAll(List<SlashCommand> slashCommands);
+
+    Flux<String> findTopCardNames(Instant since, int limit);
 }
@@ -0,0 +1,163 @@
+package com.w1sh.medusa.rest;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import com.w1sh.medusa.rest.resources.ListResponse;
+import io.netty.buffer.ByteBuf;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+public final class ListResponseDecoder<T> {
+
+    private static final String DATA_FIELD = "data";
+    private static final String TOTAL_CARDS_FIELD = "total_cards";
+    private static final String HAS_MORE_FIELD = "has_more";
+    private static final String NEXT_PAGE_FIELD = "next_page";
+
+    private final ObjectMapper objectMapper;
+    private final Class<T> type;
+
+    public ListResponseDecoder(ObjectMapper objectMapper, Class<T> type) {
+        this.objectMapper = objectMapper;
+        this.type = type;
+    }
+
+    public Flux<T> decode(Flux<ByteBuf> body) {
+        return decode(body, new ListResponse<>(), 0, Integer.MAX_VALUE);
+    }
+
+    // elements outside the window are skipped by the parser, the body is still read to the end so the connection can be reused
+    public Mono<ListResponse<T>> decodePage(Flux<ByteBuf> body, int offset, int limit) {
+        return Mono.defer(() -> {
+            final ListResponse<T> page = new ListResponse<>();
+            return decode(body, page, offset, limit)
+                    .collectList()
+                    .map(data -> {
+                        page.setData(data);
+                        return page;
+                    });
+        });
+    }
+
+    private Flux<T> decode(Flux<ByteBuf> body, ListResponse<T> metadata, int offset, int limit) {
+        return Flux.defer(() -> {
+            final Decoder decoder = new Decoder(metadata, offset, limit);
+            return body.concatMapIterable(decoder::feed)
+                    .concatWith(Flux.defer(() -> Flux.fromIterable(decoder.finish())))
+                    .doFinally(signal -> decoder.close());
+        });
+    }
+
+    private final class Decoder {
+
+        private final ListResponse<T> metadata;
+        private final int offset;
+        private final int limit;
+        private final JsonParser parser;
+        private byte[] chunk = new byte[0];
+        private TokenBuffer element;
+        private String fieldName;
+        private boolean inData;
+        private int depth;
+        private int index;
+
+        private Decoder(ListResponse<T> metadata, int offset, int limit) {
+            this.metadata = metadata;
+            this.offset = offset;
+            this.limit = limit;
+            try {
+                this.parser = objectMapper.getFactory().createNonBlockingByteArrayParser();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private List<T> feed(ByteBuf byteBuf) {
+            final int length = byteBuf.readableBytes();
+            if (chunk.length < length) chunk = new byte[length];
+            byteBuf.readBytes(chunk, 0, length);
+            try {
+                ((ByteArrayFeeder) parser.getNonBlockingInputFeeder()).feedInput(chunk, 0, length);
+                return drain();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private List<T> finish() {
+            try {
+                ((ByteArrayFeeder) parser.getNonBlockingInputFeeder()).endOfInput();
+                return drain();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private List<T> drain() throws IOException {
+            final List<T> decoded = new ArrayList<>();
+            JsonToken token;
+            while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+                if (element != null) {
+                    element.copyCurrentEvent(parser);
+                }
+                switch (token) {
+                    case START_OBJECT:
+                        if (inData && depth == 2 && index >= offset && index - offset < limit) {
+                            element = new TokenBuffer(parser);
+                            element.copyCurrentEvent(parser);
+                        }
+                        depth++;
+                        break;
+                    case START_ARRAY:
+                        if (depth == 1 && DATA_FIELD.equals(fieldName)) inData = true;
+                        depth++;
+                        break;
+                    case END_OBJECT:
+                        depth--;
+                        if (inData && depth == 2) {
+                            if (element != null) decoded.add(objectMapper.readValue(element.asParser(objectMapper), type));
+                            element = null;
+                            index++;
+                        }
+                        break;
+                    case END_ARRAY:
+                        depth--;
+                        if (depth == 1) inData = false;
+                        break;
+                    case FIELD_NAME:
+                        if (depth == 1) fieldName = parser.getCurrentName();
+                        break;
+                    case VALUE_NUMBER_INT:
+                        if (depth == 1 && TOTAL_CARDS_FIELD.equals(fieldName)) metadata.setTotalCards(parser.getIntValue());
+                        break;
+                    case VALUE_TRUE:
+                    case VALUE_FALSE:
+                        if (depth == 1 && HAS_MORE_FIELD.equals(fieldName)) metadata.setHasMore(parser.getBooleanValue());
+                        break;
+                    case VALUE_STRING:
+                        if (depth == 1 && NEXT_PAGE_FIELD.equals(fieldName)) metadata.setNextPage(parser.getText());
+                        break;
+                    default:
+                        break;
+                }
+            }
+            return decoded;
+        }
+
+        private void close() {
+            try {
+                parser.close();
+            } catch (IOException ignored) {
+                // nothing left to release
+            }
+        }
+    }
+}
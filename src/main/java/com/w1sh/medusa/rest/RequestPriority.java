@@ -0,0 +1,6 @@
+package com.w1sh.medusa.rest;
+
+public enum RequestPriority {
+    INTERACTIVE,
+    BACKGROUND
+}
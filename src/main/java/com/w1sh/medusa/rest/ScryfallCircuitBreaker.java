@@ -0,0 +1,127 @@
+package com.w1sh.medusa.rest;
+
+import com.w1sh.medusa.rest.resources.ScryfallException;
+import com.w1sh.medusa.rest.resources.ScryfallSaturatedException;
+import com.w1sh.medusa.rest.resources.ScryfallUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+@Component
+public final class ScryfallCircuitBreaker {
+
+    private static final Logger log = LoggerFactory.getLogger(ScryfallCircuitBreaker.class);
+    private final Map<State, Counter> transitions;
+
+    @Value("${medusa.scryfall.circuit-breaker.failure-threshold:5}")
+    private String failureThreshold;
+    @Value("${medusa.scryfall.circuit-breaker.open-duration:30}")
+    private String openDuration;
+    @Value("${medusa.scryfall.circuit-breaker.half-open-permits:3}")
+    private String halfOpenPermits;
+
+    private int maxFailures;
+    private long openNanos;
+    private int trialPermits;
+    private State state;
+    private int failures;
+    private int permits;
+    private int successes;
+    private long openedOn;
+
+    public ScryfallCircuitBreaker(MeterRegistry meterRegistry) {
+        this.state = State.CLOSED;
+        this.transitions = new EnumMap<>(State.class);
+        for (State target : State.values()) {
+            transitions.put(target, Counter.builder("medusa.scryfall.circuit.transitions")
+                    .tag("state", target.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+        Gauge.builder("medusa.scryfall.circuit.state", this, breaker -> breaker.getState().ordinal())
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    private void init() {
+        this.maxFailures = Integer.parseInt(failureThreshold);
+        this.openNanos = Duration.ofSeconds(Long.parseLong(openDuration)).toNanos();
+        this.trialPermits = Integer.parseInt(halfOpenPermits);
+        log.info("Opening Scryfall circuit after {} consecutive failures for {} seconds", maxFailures, openDuration);
+    }
+
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN && System.nanoTime() - openedOn >= openNanos) {
+            transition(State.HALF_OPEN);
+        }
+        switch (state) {
+            case CLOSED:
+                return true;
+            case HALF_OPEN:
+                if (permits <= 0) return false;
+                permits--;
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    public synchronized void onSuccess() {
+        if (state == State.HALF_OPEN && ++successes >= trialPermits) {
+            transition(State.CLOSED);
+        }
+        failures = 0;
+    }
+
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN || (state == State.CLOSED && ++failures >= maxFailures)) {
+            transition(State.OPEN);
+        }
+    }
+
+    // a trial that was cancelled or rejected locally tells nothing about Scryfall, so its permit is handed back
+    public synchronized void onIgnored() {
+        if (state == State.HALF_OPEN) permits++;
+    }
+
+    public void onError(Throwable t) {
+        if (t instanceof ScryfallSaturatedException) {
+            onIgnored();
+        } else if (!(t instanceof ScryfallException) || t instanceof ScryfallUnavailableException) {
+            onFailure();
+        } else {
+            // client errors such as unknown cards mean Scryfall is answering
+            onSuccess();
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public boolean isAvailable() {
+        return getState() == State.CLOSED;
+    }
+
+    private void transition(State target) {
+        log.warn("Scryfall circuit breaker transitioning from {} to {}", state, target);
+        state = target;
+        failures = 0;
+        successes = 0;
+        permits = target == State.HALF_OPEN ? trialPermits : 0;
+        if (target == State.OPEN) openedOn = System.nanoTime();
+        transitions.get(target).increment();
+    }
+
+    public enum State {
+        CLOSED, HALF_OPEN, OPEN
+    }
+}
@@ -1,84 +1,356 @@
 package com.w1sh.medusa.rest;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.w1sh.medusa.rest.resources.Card;
 import com.w1sh.medusa.rest.resources.ListResponse;
+import com.w1sh.medusa.rest.resources.ScryfallCircuitOpenException;
 import com.w1sh.medusa.rest.resources.ScryfallException;
+import com.w1sh.medusa.rest.resources.ScryfallNotFoundException;
+import com.w1sh.medusa.rest.resources.ScryfallUnavailableException;
 import discord4j.common.JacksonResources;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
 import io.netty.handler.codec.http.HttpResponseStatus;
+import org.reactivestreams.Publisher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.netty.ByteBufFlux;
 import reactor.netty.ByteBufMono;
 import reactor.netty.http.client.HttpClient;
 import reactor.netty.http.client.HttpClientResponse;
 import reactor.util.retry.Retry;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Component
 public final class ScryfallClient {
 
     private static final String SEARCH_URL = "https://api.scryfall.com/cards/search?q=%s";
     private static final String NAMED_SEARCH_URL = "https://api.scryfall.com/cards/named?fuzzy=%s";
+    private static final String CARD_URL = "https://api.scryfall.com/cards/%s";
+    private static final String COLLECTION_URL = "https://api.scryfall.com/cards/collection";
+    private static final int COLLECTION_MAX_IDENTIFIERS = 75;
     private static final Logger log = LoggerFactory.getLogger(ScryfallClient.class);
 
     private final ObjectMapper objectMapper;
+    private final ListResponseDecoder<Card> cardListDecoder;
+    private final HttpClient httpClient;
     private final HttpClient.ResponseReceiver<?> responseReceiver;
+    private final ScryfallRateLimiter rateLimiter;
+    private final ScryfallRequestPolicy requestPolicy;
+    private final ScryfallCircuitBreaker circuitBreaker;
+    private final Cache<String, Validators> validators;
 
-    public ScryfallClient(JacksonResources jacksonResources) {
+    public ScryfallClient(JacksonResources jacksonResources, ScryfallRateLimiter rateLimiter, ScryfallRequestPolicy requestPolicy,
+                          ScryfallCircuitBreaker circuitBreaker, HttpClient scryfallHttpClient) {
         this.objectMapper = jacksonResources.getObjectMapper();
-        this.responseReceiver = HttpClient.create().get();
+        this.rateLimiter = rateLimiter;
+        this.requestPolicy = requestPolicy;
+        this.circuitBreaker = circuitBreaker;
+        this.cardListDecoder = new ListResponseDecoder<>(objectMapper, Card.class);
+        this.httpClient = scryfallHttpClient;
+        this.responseReceiver = httpClient.get();
+        this.validators = Caffeine.newBuilder()
+                .maximumSize(50_000)
+                .expireAfterWrite(Duration.ofDays(1))
+                .build();
     }
 
-    public Mono<ListResponse<Card>> getCardsByName(String name) {
+    public Mono<ListResponse<Card>> getCardsByName(String name, int offset, int limit) {
         log.info("Querying Scryfall API for all cards with name like \"{}\"", name);
-        final String uri = String.format(SEARCH_URL, URLEncoder.encode(name, StandardCharsets.UTF_8));
-        return get(uri, new TypeReference<>() {});
+        return getCardsPage(String.format(SEARCH_URL, URLEncoder.encode(name, StandardCharsets.UTF_8)), offset, limit);
     }
 
-    public Mono<ListResponse<Card>> getUniquePrints(String uri) {
+    public Mono<ListResponse<Card>> getCardsPage(String uri, int offset, int limit) {
+        log.info("Querying Scryfall API for cards {} to {} of page {}", offset, offset + limit, uri);
+        return execute(RequestPriority.INTERACTIVE, true, responseReceiver.uri(uri)
+                .response((response, byteBufFlux) -> handleHttpResponse(response, byteBufFlux,
+                        body -> cardListDecoder.decodePage(body, offset, limit)))
+                .next());
+    }
+
+    public Flux<Card> getUniquePrints(String uri) {
         log.info("Querying Scryfall API for unique prints");
-        return get(uri, new TypeReference<>() {});
+        return getList(uri, cardListDecoder, RequestPriority.BACKGROUND);
+    }
+
+    public Mono<List<Card>> getUniquePrintsByName(String name) {
+        return getCardByName(name, RequestPriority.BACKGROUND)
+                .filter(card -> StringUtils.hasText(card.getUniquePrintsUri()))
+                .flatMap(card -> getUniquePrints(card.getUniquePrintsUri(), false));
+    }
+
+    // goes straight to the prints search uri already known for the cached prints, with the validators of its last answer
+    public Mono<List<Card>> revalidateUniquePrints(String uri) {
+        log.info("Revalidating unique prints {} against Scryfall API", uri);
+        return getUniquePrints(uri, true);
+    }
+
+    private Mono<List<Card>> getUniquePrints(String uri, boolean revalidate) {
+        return getList(uri, cardListDecoder, RequestPriority.BACKGROUND, revalidate).collectList()
+                .filter(cards -> !cards.isEmpty())
+                .doOnNext(cards -> log.info("Retrieved {} unique prints for {}", cards.size(), cards.get(0).getName()));
+    }
+
+    public Mono<Card> getCardById(String id, RequestPriority priority) {
+        log.info("Querying Scryfall API for card with id {}", id);
+        return get(String.format(CARD_URL, URLEncoder.encode(id, StandardCharsets.UTF_8)), new TypeReference<>() {}, priority);
+    }
+
+    public Mono<Card> revalidateCardById(String id) {
+        log.info("Revalidating card with id {} against Scryfall API", id);
+        return get(String.format(CARD_URL, URLEncoder.encode(id, StandardCharsets.UTF_8)), new TypeReference<>() {},
+                RequestPriority.BACKGROUND, true);
+    }
+
+    public Flux<Card> getCardsByIds(Collection<String> ids) {
+        return getCardsByIds(ids, RequestPriority.INTERACTIVE);
+    }
+
+    // interactive batches are fetched together under one deadline, background ones one after another so they never crowd the queue
+    public Flux<Card> getCardsByIds(Collection<String> ids, RequestPriority priority) {
+        final Flux<List<String>> batches = Flux.fromIterable(ids).buffer(COLLECTION_MAX_IDENTIFIERS);
+        if (priority != RequestPriority.INTERACTIVE) return batches.concatMap(batch -> getCollection(batch, priority, 0));
+        return Flux.defer(() -> {
+            final long deadline = deadline();
+            return batches.flatMap(batch -> getCollection(batch, priority, deadline));
+        });
+    }
+
+    private Flux<Card> getCollection(List<String> ids, RequestPriority priority, long deadline) {
+        log.info("Querying Scryfall API for a collection of {} cards", ids.size());
+        final Map<String, Object> body = Map.of("identifiers", ids.stream()
+                .map(id -> Map.of("id", id))
+                .collect(Collectors.toList()));
+        return executeMany(priority, deadline, Mono.fromCallable(() -> objectMapper.writeValueAsBytes(body))
+                .flatMapMany(bytes -> httpClient
+                        .headers(headers -> headers.set(HttpHeaderNames.CONTENT_TYPE, HttpHeaderValues.APPLICATION_JSON))
+                        .post()
+                        .uri(COLLECTION_URL)
+                        .send(Mono.just(Unpooled.wrappedBuffer(bytes)))
+                        .response((response, byteBufFlux) -> handleHttpResponse(response, byteBufFlux, cardListDecoder::decode))));
     }
 
     public Mono<Card> getCardByName(String name) {
+        return getCardByName(name, RequestPriority.INTERACTIVE);
+    }
+
+    public Mono<Card> getCardByName(String name, RequestPriority priority) {
         log.info("Querying Scryfall API for card with name similar to \"{}\"", name);
         final String uri = String.format(NAMED_SEARCH_URL, URLEncoder.encode(name, StandardCharsets.UTF_8));
-        return get(uri, new TypeReference<>() {});
+        return get(uri, new TypeReference<>() {}, priority);
+    }
+
+    public <T> Mono<T> get(String uri, TypeReference<T> typeReference, RequestPriority priority) {
+        return get(uri, typeReference, priority, false);
+    }
+
+    public <T> Flux<T> getList(String uri, ListResponseDecoder<T> decoder, RequestPriority priority) {
+        return getList(uri, decoder, priority, false);
+    }
+
+    // a revalidating request completes empty when Scryfall answers 304, the caller keeps the value it already holds
+    private <T> Mono<T> get(String uri, TypeReference<T> typeReference, RequestPriority priority, boolean revalidate) {
+        return execute(priority, true, receiver(uri, revalidate).uri(uri)
+                .responseSingle(((response, byteBuf) -> handleHttpResponse(remember(uri, response), byteBuf, typeReference))));
+    }
+
+    private <T> Flux<T> getList(String uri, ListResponseDecoder<T> decoder, RequestPriority priority, boolean revalidate) {
+        return executeMany(priority, receiver(uri, revalidate).uri(uri)
+                .response((response, byteBufFlux) -> handleHttpResponse(remember(uri, response), byteBufFlux, decoder::decode)));
+    }
+
+    // idempotent interactive requests are hedged with a second attempt once they run past the p95 latency,
+    // a failed hedge never wins over the primary attempt, which is bounded by its own timeout
+    private <T> Mono<T> execute(RequestPriority priority, boolean idempotent, Mono<T> request) {
+        final Mono<T> attempt = timed(priority, request);
+        final Mono<T> hedged = idempotent && priority == RequestPriority.INTERACTIVE
+                ? Mono.firstWithSignal(attempt, Mono.delay(requestPolicy.hedgeDelay())
+                        .filter(tick -> requestPolicy.tryHedge())
+                        .flatMap(tick -> rateLimiter.acquire(priority).then(attempt))
+                        .switchIfEmpty(Mono.never())
+                        .onErrorResume(t -> Mono.never()))
+                : attempt;
+        // the deadline expires inside the breaker, so an interactive request that never got an answer counts as a failure
+        return Mono.defer(() -> {
+            if (!circuitBreaker.tryAcquire()) return Mono.error(this::circuitOpen);
+            requestPolicy.deposit();
+            final Mono<T> execution = rateLimiter.acquire(priority).then(hedged).retryWhen(retry());
+            return (priority == RequestPriority.INTERACTIVE
+                    ? execution.timeout(requestPolicy.interactiveDeadline(), Mono.error(this::deadlineExceeded))
+                    : execution)
+                    .doOnSuccess(value -> circuitBreaker.onSuccess())
+                    .doOnError(circuitBreaker::onError)
+                    .doOnCancel(circuitBreaker::onIgnored);
+        });
+    }
+
+    private <T> Flux<T> executeMany(RequestPriority priority, Flux<T> request) {
+        return Flux.defer(() -> executeMany(priority, priority == RequestPriority.INTERACTIVE ? deadline() : 0, request));
+    }
+
+    // list bodies are streamed, so a failure is only retried before the first element, a retry would repeat emitted ones,
+    // the deadline is an absolute System.nanoTime() that only interactive requests are held to
+    private <T> Flux<T> executeMany(RequestPriority priority, long deadline, Flux<T> request) {
+        return Flux.defer(() -> {
+            // a batch left without time never reaches scryfall, so it tells the breaker nothing
+            if (priority == RequestPriority.INTERACTIVE && System.nanoTime() - deadline >= 0) return Flux.error(this::deadlineExceeded);
+            if (!circuitBreaker.tryAcquire()) return Flux.error(this::circuitOpen);
+            requestPolicy.deposit();
+            final AtomicBoolean emitted = new AtomicBoolean();
+            final Flux<T> execution = rateLimiter.acquire(priority)
+                    .thenMany(request.timeout(requestPolicy.timeout(priority)))
+                    .doOnNext(value -> emitted.set(true))
+                    .retryWhen(retry(() -> !emitted.get()));
+            return (priority == RequestPriority.INTERACTIVE ? withDeadline(execution, deadline) : execution)
+                    .doOnComplete(circuitBreaker::onSuccess)
+                    .doOnError(circuitBreaker::onError)
+                    .doOnCancel(circuitBreaker::onIgnored);
+        });
     }
 
-    public <T> Mono<T> get(String uri, TypeReference<T> typeReference) {
-        return responseReceiver.uri(uri)
-                .responseSingle(((response, byteBuf) -> handleHttpResponse(response, byteBuf, typeReference)))
-                .retryWhen(Retry.maxInARow(2))
-                .timeout(Duration.ofSeconds(10));
+    private long deadline() {
+        return System.nanoTime() + requestPolicy.interactiveDeadline().toNanos();
+    }
+
+    // every element is raced against the time left until one absolute deadline, not against a fresh interval
+    private <T> Flux<T> withDeadline(Flux<T> execution, long deadline) {
+        final Function<Object, Mono<Long>> remaining = value -> Mono.delay(Duration.ofNanos(Math.max(0, deadline - System.nanoTime())));
+        return execution.timeout(remaining.apply(null), remaining, Flux.error(this::deadlineExceeded));
+    }
+
+    private ScryfallCircuitOpenException circuitOpen() {
+        return new ScryfallCircuitOpenException("Scryfall is unavailable, requests are paused until it recovers");
+    }
+
+    private ScryfallUnavailableException deadlineExceeded() {
+        return new ScryfallUnavailableException(String.format("Scryfall did not answer within the interaction deadline of %d ms",
+                requestPolicy.interactiveDeadline().toMillis()));
+    }
+
+    private <T> Mono<T> timed(RequestPriority priority, Mono<T> request) {
+        return Mono.defer(() -> {
+            final long start = System.nanoTime();
+            return request.timeout(requestPolicy.timeout(priority))
+                    .doOnSuccess(value -> requestPolicy.record(System.nanoTime() - start))
+                    .doOnError(TimeoutException.class, e -> requestPolicy.record(System.nanoTime() - start))
+                    .doOnCancel(() -> requestPolicy.record(System.nanoTime() - start));
+        });
+    }
+
+    private Retry retry() {
+        return retry(() -> true);
+    }
+
+    private Retry retry(BooleanSupplier retryable) {
+        return Retry.max(2).filter(t -> retryable.getAsBoolean()
+                && (!(t instanceof ScryfallException) || t instanceof ScryfallUnavailableException)
+                && requestPolicy.tryRetry())
+                .onRetryExhaustedThrow((spec, signal) -> signal.failure());
+    }
+
+    private HttpClient.ResponseReceiver<?> receiver(String uri, boolean revalidate) {
+        final Validators known = revalidate ? validators.getIfPresent(uri) : null;
+        if (known == null) return responseReceiver;
+        return httpClient.headers(headers -> {
+            if (known.entityTag != null) headers.set(HttpHeaderNames.IF_NONE_MATCH, known.entityTag);
+            if (known.lastModified != null) headers.set(HttpHeaderNames.IF_MODIFIED_SINCE, known.lastModified);
+        }).get();
+    }
+
+    private HttpClientResponse remember(String uri, HttpClientResponse response) {
+        if (response.status().equals(HttpResponseStatus.OK)) {
+            final String entityTag = response.responseHeaders().get(HttpHeaderNames.ETAG);
+            final String lastModified = response.responseHeaders().get(HttpHeaderNames.LAST_MODIFIED);
+            if (entityTag != null || lastModified != null) {
+                validators.put(uri, new Validators(entityTag, lastModified));
+            }
+        }
+        return response;
     }
 
     private <T> Mono<T> handleHttpResponse(HttpClientResponse httpClientResponse, ByteBufMono byteBufMono, TypeReference<T> typeReference){
         log.info("Received response from Scryfall with status {}", httpClientResponse.status());
-        final String exceptionMessage = String.format("Failed to retrieve cards from Scryfall API with reason \"%s\"",
-                httpClientResponse.status());
-        if(httpClientResponse.status().equals(HttpResponseStatus.OK)){
-            return byteBufMono.asString()
-                    .flatMap(json -> Mono.justOrEmpty(parse(json, typeReference)))
-                    .switchIfEmpty(Mono.error(() -> new ScryfallException(exceptionMessage)));
+        if(httpClientResponse.status().equals(HttpResponseStatus.NOT_MODIFIED)){
+            return Mono.empty();
+        } else if(httpClientResponse.status().equals(HttpResponseStatus.OK)){
+            return byteBufMono.asInputStream()
+                    .flatMap(inputStream -> Mono.justOrEmpty(parse(inputStream, typeReference)))
+                    .switchIfEmpty(Mono.error(() -> failure(httpClientResponse)));
         } else {
-            return Mono.error(() -> new ScryfallException(exceptionMessage));
+            return Mono.error(() -> failure(httpClientResponse));
         }
     }
 
-    private <T> T parse(String json, TypeReference<T> typeReference){
-        try {
-            return objectMapper.readValue(json, typeReference);
-        } catch (JsonProcessingException e) {
+    private <T> Flux<T> handleHttpResponse(HttpClientResponse httpClientResponse, ByteBufFlux byteBufFlux,
+                                           Function<ByteBufFlux, Publisher<T>> decoder){
+        log.info("Received response from Scryfall with status {}", httpClientResponse.status());
+        if(httpClientResponse.status().equals(HttpResponseStatus.NOT_MODIFIED)){
+            return Flux.empty();
+        } else if(httpClientResponse.status().equals(HttpResponseStatus.OK)){
+            return Flux.from(decoder.apply(byteBufFlux))
+                    .onErrorMap(t -> !(t instanceof ScryfallException), t -> {
+                        log.error("Error while parsing JSON received from Scryfall", t);
+                        return failure(httpClientResponse);
+                    });
+        } else {
+            return Flux.error(() -> failure(httpClientResponse));
+        }
+    }
+
+    private <T> T parse(InputStream inputStream, TypeReference<T> typeReference){
+        try (inputStream) {
+            return objectMapper.readValue(inputStream, typeReference);
+        } catch (IOException e) {
             log.error("Error while parsing JSON received from Scryfall", e);
         }
         return null;
     }
+
+    public boolean isAvailable() {
+        return circuitBreaker.isAvailable();
+    }
+
+    private ScryfallException failure(HttpClientResponse httpClientResponse) {
+        final String message = String.format("Failed to retrieve cards from Scryfall API with reason \"%s\"",
+                httpClientResponse.status());
+        final int code = httpClientResponse.status().code();
+        if (code >= 500 || code == HttpResponseStatus.TOO_MANY_REQUESTS.code()) {
+            return new ScryfallUnavailableException(message);
+        } else if (code == HttpResponseStatus.NOT_FOUND.code()) {
+            return new ScryfallNotFoundException(message);
+        }
+        return new ScryfallException(message);
+    }
+
+    private static final class Validators {
+
+        private final String entityTag;
+        private final String lastModified;
+
+        private Validators(String entityTag, String lastModified) {
+            this.entityTag = entityTag;
+            this.lastModified = lastModified;
+        }
+    }
 }
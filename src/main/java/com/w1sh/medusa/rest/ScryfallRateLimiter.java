@@ -0,0 +1,173 @@
+package com.w1sh.medusa.rest;
+
+import com.w1sh.medusa.rest.resources.ScryfallSaturatedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Schedulers;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Component
+public final class ScryfallRateLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(ScryfallRateLimiter.class);
+    private final Map<RequestPriority, Queue<Ticket>> queues;
+    private final Map<RequestPriority, AtomicInteger> depths;
+    private final Map<RequestPriority, Timer> waitTimers;
+    private final Counter rejected;
+
+    @Value("${medusa.scryfall.rate-limit.permits-per-second:10}")
+    private String permitsPerSecond;
+    @Value("${medusa.scryfall.rate-limit.burst:10}")
+    private String burst;
+    @Value("${medusa.scryfall.rate-limit.queue-capacity:100}")
+    private String queueCapacity;
+    @Value("${medusa.scryfall.rate-limit.max-wait:5}")
+    private String maxWait;
+
+    private double rate;
+    private double capacity;
+    private int maxQueued;
+    private Duration maxWaitDuration;
+    private double tokens;
+    private long lastRefill;
+    private boolean drainScheduled;
+
+    public ScryfallRateLimiter(MeterRegistry meterRegistry) {
+        this.queues = new EnumMap<>(RequestPriority.class);
+        this.depths = new EnumMap<>(RequestPriority.class);
+        this.waitTimers = new EnumMap<>(RequestPriority.class);
+        for (RequestPriority priority : RequestPriority.values()) {
+            final AtomicInteger depth = new AtomicInteger();
+            queues.put(priority, new ConcurrentLinkedQueue<>());
+            depths.put(priority, depth);
+            waitTimers.put(priority, Timer.builder("medusa.scryfall.ratelimiter.wait")
+                    .tag("priority", priority.name().toLowerCase())
+                    .register(meterRegistry));
+            Gauge.builder("medusa.scryfall.ratelimiter.queue", depth, AtomicInteger::get)
+                    .tag("priority", priority.name().toLowerCase())
+                    .register(meterRegistry);
+        }
+        this.rejected = Counter.builder("medusa.scryfall.ratelimiter.rejected").register(meterRegistry);
+    }
+
+    @PostConstruct
+    private void init() {
+        this.rate = Double.parseDouble(permitsPerSecond);
+        this.capacity = Double.parseDouble(burst);
+        this.maxQueued = Integer.parseInt(queueCapacity);
+        this.maxWaitDuration = Duration.ofSeconds(Long.parseLong(maxWait));
+        this.tokens = capacity;
+        this.lastRefill = System.nanoTime();
+        log.info("Limiting Scryfall requests to {} per second with burst of {} and {} queued requests", rate, capacity, maxQueued);
+    }
+
+    public Mono<Void> acquire(RequestPriority priority) {
+        return Mono.<Void>create(sink -> {
+            if (queuedCount() >= maxQueued) {
+                rejected.increment();
+                sink.error(new ScryfallSaturatedException("Too many requests waiting for Scryfall, try again later"));
+                return;
+            }
+            final Ticket ticket = new Ticket(priority, sink);
+            sink.onCancel(ticket::cancel);
+            depths.get(priority).incrementAndGet();
+            queues.get(priority).offer(ticket);
+            drain();
+        }).timeout(maxWaitDuration, Mono.error(() ->
+                new ScryfallSaturatedException("Timed out waiting for a free Scryfall request slot")));
+    }
+
+    private int queuedCount() {
+        return depths.values().stream().mapToInt(AtomicInteger::get).sum();
+    }
+
+    private void drain() {
+        final List<Ticket> released = new ArrayList<>();
+        synchronized (this) {
+            refill();
+            Ticket ticket;
+            while (tokens >= 1 && (ticket = poll()) != null) {
+                if (ticket.complete()) {
+                    tokens -= 1;
+                    released.add(ticket);
+                }
+            }
+            if (queuedCount() > 0 && !drainScheduled) {
+                drainScheduled = true;
+                final long delay = (long) Math.ceil((1 - tokens) / rate * 1000);
+                Schedulers.parallel().schedule(this::scheduledDrain, Math.max(delay, 1), TimeUnit.MILLISECONDS);
+            }
+        }
+        released.forEach(Ticket::release);
+    }
+
+    private void scheduledDrain() {
+        synchronized (this) {
+            drainScheduled = false;
+        }
+        drain();
+    }
+
+    private void refill() {
+        final long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefill) / 1e9 * rate);
+        lastRefill = now;
+    }
+
+    private Ticket poll() {
+        for (RequestPriority priority : RequestPriority.values()) {
+            final Ticket ticket = queues.get(priority).poll();
+            if (ticket != null) return ticket;
+        }
+        return null;
+    }
+
+    private final class Ticket {
+
+        private final RequestPriority priority;
+        private final MonoSink<Void> sink;
+        private final long enqueuedOn;
+        private final AtomicBoolean completed;
+
+        private Ticket(RequestPriority priority, MonoSink<Void> sink) {
+            this.priority = priority;
+            this.sink = sink;
+            this.enqueuedOn = System.nanoTime();
+            this.completed = new AtomicBoolean();
+        }
+
+        private boolean complete() {
+            if (!completed.compareAndSet(false, true)) return false;
+            depths.get(priority).decrementAndGet();
+            return true;
+        }
+
+        private void cancel() {
+            if (complete()) queues.get(priority).remove(this);
+        }
+
+        private void release() {
+            waitTimers.get(priority).record(System.nanoTime() - enqueuedOn, TimeUnit.NANOSECONDS);
+            sink.success();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.w1sh.medusa.rest;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.Arrays;
+
+@Component
+public final class ScryfallRequestPolicy {
+
+    private static final Logger log = LoggerFactory.getLogger(ScryfallRequestPolicy.class);
+    private static final int WINDOW = 256;
+    private static final int MIN_SAMPLES = 20;
+
+    private final long[] samples;
+    private final Counter hedged;
+    private final Counter retried;
+    private final Counter rejected;
+    private int sampleCount;
+    private int nextSample;
+    private double budget;
+
+    @Value("${medusa.scryfall.timeout.min:500}")
+    private String minTimeout;
+    @Value("${medusa.scryfall.timeout.interactive-max:2500}")
+    private String interactiveMaxTimeout;
+    @Value("${medusa.scryfall.timeout.background-max:10000}")
+    private String backgroundMaxTimeout;
+    @Value("${medusa.scryfall.timeout.multiplier:3}")
+    private String timeoutMultiplier;
+    @Value("${medusa.scryfall.timeout.initial-p95:1000}")
+    private String initialP95;
+    @Value("${medusa.scryfall.deadline.interactive:2500}")
+    private String interactiveDeadline;
+    @Value("${medusa.scryfall.retry-budget.ratio:0.1}")
+    private String retryRatio;
+    @Value("${medusa.scryfall.retry-budget.reserve:10}")
+    private String retryReserve;
+
+    private long minTimeoutMillis;
+    private long interactiveMaxMillis;
+    private long backgroundMaxMillis;
+    private double multiplier;
+    private Duration interactiveDeadlineDuration;
+    private long initialP95Millis;
+    private double ratio;
+    private double reserve;
+
+    public ScryfallRequestPolicy(MeterRegistry meterRegistry) {
+        this.samples = new long[WINDOW];
+        this.hedged = Counter.builder("medusa.scryfall.hedged").register(meterRegistry);
+        this.retried = Counter.builder("medusa.scryfall.retries").register(meterRegistry);
+        this.rejected = Counter.builder("medusa.scryfall.retries.rejected").register(meterRegistry);
+        Gauge.builder("medusa.scryfall.latency.p95", this, policy -> policy.p95().toMillis())
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    private void init() {
+        this.minTimeoutMillis = Long.parseLong(minTimeout);
+        this.backgroundMaxMillis = Long.parseLong(backgroundMaxTimeout);
+        this.multiplier = Double.parseDouble(timeoutMultiplier);
+        this.interactiveDeadlineDuration = Duration.ofMillis(Long.parseLong(interactiveDeadline));
+        // an attempt has to time out strictly before the deadline, so its failure is seen and a retry still fits
+        this.interactiveMaxMillis = Math.min(Long.parseLong(interactiveMaxTimeout), interactiveDeadlineDuration.toMillis() - minTimeoutMillis);
+        if (interactiveMaxMillis < minTimeoutMillis) {
+            log.error("Interactive deadline of {} ms leaves no room for an attempt timeout of at least {} ms", interactiveDeadline, minTimeout);
+            throw new IllegalStateException("Interactive deadline is too short for the minimum Scryfall timeout");
+        }
+        this.initialP95Millis = Long.parseLong(initialP95);
+        this.ratio = Double.parseDouble(retryRatio);
+        this.reserve = Double.parseDouble(retryReserve);
+        this.budget = reserve;
+        log.info("Deriving Scryfall timeouts from p95 latency, with retries capped at {} of requests", ratio);
+    }
+
+    public synchronized void record(long elapsedNanos) {
+        samples[nextSample] = elapsedNanos;
+        nextSample = (nextSample + 1) % WINDOW;
+        sampleCount = Math.min(sampleCount + 1, WINDOW);
+    }
+
+    public synchronized Duration p95() {
+        if (sampleCount < MIN_SAMPLES) return Duration.ofMillis(initialP95Millis);
+        final long[] sorted = Arrays.copyOf(samples, sampleCount);
+        Arrays.sort(sorted);
+        return Duration.ofNanos(sorted[(int) Math.ceil(sampleCount * 0.95) - 1]);
+    }
+
+    public Duration timeout(RequestPriority priority) {
+        final long max = priority == RequestPriority.INTERACTIVE ? interactiveMaxMillis : backgroundMaxMillis;
+        final long derived = (long) (p95().toMillis() * multiplier);
+        return Duration.ofMillis(Math.max(minTimeoutMillis, Math.min(max, derived)));
+    }
+
+    // interactive requests answer a discord interaction, so waiting for a permit, hedging and retrying all share this deadline
+    public Duration interactiveDeadline() {
+        return interactiveDeadlineDuration;
+    }
+
+    public Duration hedgeDelay() {
+        return p95();
+    }
+
+    // every request earns a fraction of a retry, so retries and hedges can never exceed that share of traffic
+    public synchronized void deposit() {
+        budget = Math.min(reserve, budget + ratio);
+    }
+
+    public boolean tryRetry() {
+        if (withdraw()) {
+            retried.increment();
+            return true;
+        }
+        rejected.increment();
+        return false;
+    }
+
+    public boolean tryHedge() {
+        if (withdraw()) {
+            hedged.increment();
+            return true;
+        }
+        return false;
+    }
+
+    private synchronized boolean withdraw() {
+        if (budget < 1) return false;
+        budget -= 1;
+        return true;
+    }
+}
@@ -0,0 +1,8 @@
+package com.w1sh.medusa.rest.resources;
+
+public class ScryfallCircuitOpenException extends ScryfallException {
+
+    public ScryfallCircuitOpenException(String message) {
+        super(message);
+    }
+}
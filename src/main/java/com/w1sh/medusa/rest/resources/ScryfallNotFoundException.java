@@ -0,0 +1,8 @@
+package com.w1sh.medusa.rest.resources;
+
+public class ScryfallNotFoundException extends ScryfallException {
+
+    public ScryfallNotFoundException(String message) {
+        super(message);
+    }
+}
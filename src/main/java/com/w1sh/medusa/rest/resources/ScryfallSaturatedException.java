@@ -0,0 +1,8 @@
+package com.w1sh.medusa.rest.resources;
+
+public class ScryfallSaturatedException extends ScryfallException {
+
+    public ScryfallSaturatedException(String message) {
+        super(message);
+    }
+}
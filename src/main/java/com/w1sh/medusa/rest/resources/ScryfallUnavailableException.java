@@ -0,0 +1,8 @@
+package com.w1sh.medusa.rest.resources;
+
+public class ScryfallUnavailableException extends ScryfallException {
+
+    public ScryfallUnavailableException(String message) {
+        super(message);
+    }
+}
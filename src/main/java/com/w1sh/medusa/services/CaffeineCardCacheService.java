@@ -1,48 +1,219 @@
 package com.w1sh.medusa.services;
 
 import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.CacheLoader;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.w1sh.medusa.configurations.CacheProperties;
+import com.w1sh.medusa.index.CompactCard;
+import com.w1sh.medusa.rest.RequestPriority;
+import com.w1sh.medusa.rest.ScryfallClient;
 import com.w1sh.medusa.rest.resources.Card;
-import com.w1sh.medusa.utils.Caches;
+import com.w1sh.medusa.utils.Cards;
+import com.w1sh.medusa.utils.SingleFlight;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Mono;
 
 import java.time.Duration;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 @Component
+@ConditionalOnProperty(value = "medusa.cache.type", havingValue = "caffeine", matchIfMissing = true)
 public final class CaffeineCardCacheService implements CardCacheService {
 
     private static final Logger log = LoggerFactory.getLogger(CaffeineCardCacheService.class);
-    private final Cache<String, Card> cache;
-    private final Cache<String, List<Card>> uniquePrints;
+    private final LoadingCache<String, CompactCard> cards;
+    private final Cache<String, String> aliases;
+    private final Cache<String, List<CompactCard>> uniquePrints;
+    private final SingleFlight<String, Card> cardLookups;
+    private final SingleFlight<String, List<Card>> uniquePrintsLookups;
+    private final Duration cardsRefreshAfter;
+    private final Set<String> restoredStale;
+    private volatile Consumer<Card> cardRefreshListener;
+    private volatile BiConsumer<String, List<Card>> uniquePrintsRefreshListener;
 
-    public CaffeineCardCacheService() {
-        this.cache = Caffeine.newBuilder()
+    public CaffeineCardCacheService(MeterRegistry meterRegistry, ScryfallClient scryfallClient, CacheProperties cacheProperties) {
+        this.cards = Caffeine.newBuilder()
+                .maximumWeight(cacheProperties.getCardsMaxWeight())
+                .weigher((String id, CompactCard card) -> card.weigh())
+                .expireAfterAccess(Duration.ofHours(6))
+                .refreshAfterWrite(cacheProperties.getCardsRefreshAfter())
+                .expireAfterWrite(cacheProperties.getStaleWindow())
+                .recordStats()
+                .build(new RefreshLoader<>("card", id -> scryfallClient.getCardById(id, RequestPriority.BACKGROUND).map(CompactCard::of),
+                        (id, card) -> scryfallClient.revalidateCardById(id).map(CompactCard::of), this::onCardRefreshed));
+        this.aliases = Caffeine.newBuilder()
                 .expireAfterAccess(Duration.ofHours(6))
                 .expireAfterWrite(Duration.ofDays(1))
+                .recordStats()
                 .build();
         this.uniquePrints = Caffeine.newBuilder()
+                .maximumWeight(cacheProperties.getUniquePrintsMaxWeight())
+                .weigher((String name, List<CompactCard> prints) -> CompactCard.weigh(prints))
                 .expireAfterAccess(Duration.ofHours(2))
-                .expireAfterWrite(Duration.ofHours(6))
-                .build();
+                .refreshAfterWrite(cacheProperties.getUniquePrintsRefreshAfter())
+                .expireAfterWrite(cacheProperties.getStaleWindow())
+                .recordStats()
+                .build(new RefreshLoader<>("unique prints", name -> scryfallClient.getUniquePrintsByName(name).map(CompactCard::of),
+                        (name, prints) -> revalidateUniquePrints(scryfallClient, name, prints), this::onUniquePrintsRefreshed));
+        this.cardLookups = new SingleFlight<>(meterRegistry, "cards");
+        this.uniquePrintsLookups = new SingleFlight<>(meterRegistry, "unique-prints");
+        this.cardsRefreshAfter = cacheProperties.getCardsRefreshAfter();
+        this.restoredStale = ConcurrentHashMap.newKeySet();
+        CaffeineCacheMetrics.monitor(meterRegistry, cards, "cards");
+        CaffeineCacheMetrics.monitor(meterRegistry, aliases, "card-aliases");
+        CaffeineCacheMetrics.monitor(meterRegistry, uniquePrints, "unique-prints");
+        monitorWeight(meterRegistry, cards, "cards");
+        monitorWeight(meterRegistry, uniquePrints, "unique-prints");
     }
 
     @Override
     public void put(String name, Card card) {
-        cache.put(card.getName(), card);
+        restoredStale.remove(card.getId());
+        cards.put(card.getId(), CompactCard.of(card));
+        aliases.put(Cards.normalize(name), card.getId());
+        aliases.put(Cards.normalize(card.getName()), card.getId());
+    }
+
+    @Override
+    public Mono<Card> getCardById(String id) {
+        return Mono.justOrEmpty(getCard(id)).map(CompactCard::toCard);
     }
 
     @Override
     public Mono<Card> getCardByName(String name, Supplier<Mono<Card>> onCacheMissSupplier) {
-        return Caches.lookup(cache, name, onCacheMissSupplier);
+        final String key = Cards.normalize(name);
+        return Mono.justOrEmpty(aliases.getIfPresent(key))
+                .flatMap(id -> Mono.justOrEmpty(getCard(id)))
+                .map(CompactCard::toCard)
+                .switchIfEmpty(Mono.defer(() -> cardLookups.execute(key, onCacheMissSupplier)
+                        .doOnNext(card -> put(key, card))));
     }
 
     @Override
     public Mono<List<Card>> getUniquePrintsByName(String name, Supplier<Mono<List<Card>>> onCacheMissSupplier) {
-        return Caches.lookup(uniquePrints, name, onCacheMissSupplier);
+        final String key = Cards.normalize(name);
+        return Mono.justOrEmpty(uniquePrints.getIfPresent(key))
+                .map(CompactCard::toCards)
+                .switchIfEmpty(Mono.defer(() -> uniquePrintsLookups.execute(key, onCacheMissSupplier)
+                        .doOnNext(prints -> uniquePrints.put(key, CompactCard.of(prints)))));
+    }
+
+    // caffeine only knows the restore time, so a card restored past its refresh interval is refreshed on its first hit
+    @Override
+    public void restore(String name, Card card, Duration age) {
+        put(name, card);
+        if (age.compareTo(cardsRefreshAfter) >= 0) restoredStale.add(card.getId());
+    }
+
+    @Override
+    public Collection<Card> getCachedCards() {
+        return cards.asMap().values().stream().map(CompactCard::toCard).collect(Collectors.toList());
+    }
+
+    @Override
+    public Map<String, String> getCachedAliases() {
+        return Map.copyOf(aliases.asMap());
+    }
+
+    private static Mono<List<CompactCard>> revalidateUniquePrints(ScryfallClient scryfallClient, String name, List<CompactCard> prints) {
+        final String uri = prints.isEmpty() ? null : prints.get(0).toCard().getUniquePrintsUri();
+        if (uri == null) return scryfallClient.getUniquePrintsByName(name).map(CompactCard::of);
+        return scryfallClient.revalidateUniquePrints(uri).map(CompactCard::of);
+    }
+
+    private static void monitorWeight(MeterRegistry meterRegistry, Cache<String, ?> cache, String name) {
+        Gauge.builder("medusa.cache.weight", cache, c -> c.policy().eviction()
+                        .map(eviction -> eviction.weightedSize().orElse(0L))
+                        .orElse(0L))
+                .tag("cache", name)
+                .baseUnit(BaseUnits.BYTES)
+                .register(meterRegistry);
+    }
+
+    private CompactCard getCard(String id) {
+        final CompactCard card = cards.getIfPresent(id);
+        if (card != null && restoredStale.remove(id)) cards.refresh(id);
+        return card;
+    }
+
+    // lets a tiered cache write refreshed and revalidated values through to its shared tier
+    void onRefresh(Consumer<Card> cardRefreshListener, BiConsumer<String, List<Card>> uniquePrintsRefreshListener) {
+        this.cardRefreshListener = cardRefreshListener;
+        this.uniquePrintsRefreshListener = uniquePrintsRefreshListener;
+    }
+
+    private void onCardRefreshed(String id, CompactCard card) {
+        final Consumer<Card> listener = cardRefreshListener;
+        if (listener != null) listener.accept(card.toCard());
+    }
+
+    private void onUniquePrintsRefreshed(String name, List<CompactCard> prints) {
+        final BiConsumer<String, List<Card>> listener = uniquePrintsRefreshListener;
+        if (listener != null) listener.accept(name, CompactCard.toCards(prints));
+    }
+
+    void invalidateCard(String id) {
+        cards.invalidate(id);
+    }
+
+    void invalidateUniquePrints(String name) {
+        uniquePrints.invalidate(Cards.normalize(name));
+    }
+
+    // serves the cached value while reloading it, a not modified reload extends it while a failed one leaves it to expire
+    // with its original write time, so an outage can never keep an entry past the stale window
+    private static final class RefreshLoader<V> implements CacheLoader<String, V> {
+
+        private final String type;
+        private final Function<String, Mono<V>> fetcher;
+        private final BiFunction<String, V, Mono<V>> revalidator;
+        private final BiConsumer<String, V> onRefreshed;
+
+        private RefreshLoader(String type, Function<String, Mono<V>> fetcher, BiFunction<String, V, Mono<V>> revalidator,
+                              BiConsumer<String, V> onRefreshed) {
+            this.type = type;
+            this.fetcher = fetcher;
+            this.revalidator = revalidator;
+            this.onRefreshed = onRefreshed;
+        }
+
+        @Override
+        public V load(String key) {
+            return fetcher.apply(key).block();
+        }
+
+        @Override
+        public CompletableFuture<V> asyncLoad(String key, Executor executor) {
+            return fetcher.apply(key).toFuture();
+        }
+
+        @Override
+        public CompletableFuture<V> asyncReload(String key, V oldValue, Executor executor) {
+            return revalidator.apply(key, oldValue)
+                    .defaultIfEmpty(oldValue)
+                    .doOnNext(value -> onRefreshed.accept(key, value))
+                    .doOnError(e -> log.warn("Failed to refresh {} {}, serving stale value until it expires", type, key, e))
+                    .toFuture();
+        }
     }
 }
@@ -3,14 +3,28 @@ package com.w1sh.medusa.services;
 import com.w1sh.medusa.rest.resources.Card;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Supplier;
 
 public interface CardCacheService {
 
     void put(String name, Card card);
 
+    Mono<Card> getCardById(String id);
+
     Mono<Card> getCardByName(String name, Supplier<Mono<Card>> onCacheMissSupplier);
 
     Mono<List<Card>> getUniquePrintsByName(String name, Supplier<Mono<List<Card>>> onCacheMissSupplier);
+
+    Collection<Card> getCachedCards();
+
+    Map<String, String> getCachedAliases();
+
+    // a restored card is as old as the snapshot it came from, not newly written
+    default void restore(String name, Card card, Duration age) {
+        put(name, card);
+    }
 }
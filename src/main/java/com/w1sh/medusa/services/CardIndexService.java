@@ -0,0 +1,105 @@
+package com.w1sh.medusa.services;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.w1sh.medusa.index.CardIndex;
+import com.w1sh.medusa.rest.resources.Card;
+import discord4j.common.JacksonResources;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+@Service
+public final class CardIndexService {
+
+    private static final Logger log = LoggerFactory.getLogger(CardIndexService.class);
+    private final ObjectMapper objectMapper;
+    private final CardNameService cardNameService;
+    private final AtomicReference<CardIndex> index;
+    private final AtomicReference<FileTime> lastModified;
+
+    @Value("${medusa.cards.bulk.file:}")
+    private String bulkFile;
+    @Value("${medusa.cards.bulk.reload.interval:6}")
+    private String reloadInterval;
+
+    public CardIndexService(JacksonResources jacksonResources, CardNameService cardNameService) {
+        this.objectMapper = jacksonResources.getObjectMapper();
+        this.cardNameService = cardNameService;
+        this.index = new AtomicReference<>(CardIndex.empty());
+        this.lastModified = new AtomicReference<>(FileTime.fromMillis(0));
+    }
+
+    @PostConstruct
+    private void init() {
+        if (!StringUtils.hasText(bulkFile)) {
+            log.info("No Scryfall bulk data file configured, card index will remain empty");
+            return;
+        }
+        log.info("Registering periodically reload of card index from {} with interval of {} hours", bulkFile, reloadInterval);
+        Schedulers.boundedElastic().schedulePeriodically(this::reloadIfModified, 0,
+                Integer.parseInt(reloadInterval), TimeUnit.HOURS);
+    }
+
+    public Mono<Card> getCardByName(String name) {
+        return Mono.justOrEmpty(index.get().getByName(name));
+    }
+
+    public Mono<Card> getCardById(String id) {
+        return Mono.justOrEmpty(index.get().getById(id));
+    }
+
+    public CardIndex getIndex() {
+        return index.get();
+    }
+
+    // the modification time is only recorded after a successful load, so a file that failed to load is retried on the next run
+    private void reloadIfModified() {
+        try {
+            final Path path = Paths.get(bulkFile);
+            final FileTime modified = Files.getLastModifiedTime(path);
+            if (modified.equals(lastModified.get())) return;
+            swap(load(path));
+            lastModified.set(modified);
+        } catch (IOException e) {
+            log.error("Failed to reload card index from {}", bulkFile, e);
+        }
+    }
+
+    private void swap(CardIndex cardIndex) {
+        final CardIndex previous = index.getAndSet(cardIndex);
+        log.info("Swapped card index with {} cards (previously {} cards)", cardIndex.size(), previous.size());
+        cardNameService.registerAll(cardIndex.getNames());
+        if (cardIndex.size() > 0) cardNameService.markComplete();
+    }
+
+    private CardIndex load(Path path) throws IOException {
+        log.info("Loading card index from Scryfall bulk data file {}", path);
+        final CardIndex.Builder builder = CardIndex.builder();
+        try (InputStream inputStream = Files.newInputStream(path);
+             JsonParser parser = objectMapper.getFactory().createParser(inputStream)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException(String.format("Expected an array of cards in bulk data file %s", path));
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                builder.add(objectMapper.readValue(parser, Card.class));
+            }
+        }
+        return builder.build();
+    }
+}
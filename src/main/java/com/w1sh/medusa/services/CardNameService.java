@@ -0,0 +1,68 @@
+package com.w1sh.medusa.services;
+
+import com.w1sh.medusa.index.FuzzyNameIndex;
+import com.w1sh.medusa.index.PrefixNameIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Service
+public final class CardNameService {
+
+    private static final Logger log = LoggerFactory.getLogger(CardNameService.class);
+    private final PrefixNameIndex prefixNameIndex;
+
+    @Value("${medusa.cards.fuzzy.min-similarity:0.5}")
+    private String minSimilarity;
+    @Value("${medusa.cards.fuzzy.rewrite-similarity:0.8}")
+    private String rewriteSimilarity;
+
+    private FuzzyNameIndex fuzzyNameIndex;
+    private double rewriteSimilarityThreshold;
+    private volatile boolean complete;
+
+    public CardNameService() {
+        this.prefixNameIndex = new PrefixNameIndex();
+    }
+
+    @PostConstruct
+    private void init() {
+        this.fuzzyNameIndex = new FuzzyNameIndex(Double.parseDouble(minSimilarity));
+        this.rewriteSimilarityThreshold = Double.parseDouble(rewriteSimilarity);
+    }
+
+    public void register(String name) {
+        if (name == null) return;
+        fuzzyNameIndex.add(name);
+        prefixNameIndex.add(name);
+    }
+
+    public void registerAll(Collection<String> names) {
+        names.forEach(this::register);
+        log.info("Card name index now holds {} names", fuzzyNameIndex.size());
+    }
+
+    // called once the full bulk data corpus has been registered, before that a close match may just be a card we haven't seen
+    public void markComplete() {
+        this.complete = true;
+    }
+
+    public Optional<String> resolve(String query) {
+        return fuzzyNameIndex.resolve(query);
+    }
+
+    // names sent to Scryfall are only rewritten for exact hits, or for near identical ones when every card name is known
+    public Optional<String> canonicalize(String query) {
+        return fuzzyNameIndex.resolve(query, complete ? rewriteSimilarityThreshold : Double.MAX_VALUE);
+    }
+
+    public List<String> complete(String prefix, int limit) {
+        return prefixNameIndex.complete(prefix, limit);
+    }
+}
@@ -0,0 +1,23 @@
+package com.w1sh.medusa.services;
+
+import com.w1sh.medusa.rest.resources.Card;
+
+public final class CardResult {
+
+    private final Card card;
+    private final boolean stale;
+
+    CardResult(Card card, boolean stale) {
+        this.card = card;
+        this.stale = stale;
+    }
+
+    public Card getCard() {
+        return card;
+    }
+
+    // served from the local index or cache while Scryfall couldn't be asked for a fresh copy
+    public boolean isStale() {
+        return stale;
+    }
+}
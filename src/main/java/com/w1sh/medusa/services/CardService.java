@@ -1,49 +1,116 @@
 package com.w1sh.medusa.services;
 
+import com.w1sh.medusa.rest.RequestPriority;
 import com.w1sh.medusa.rest.ScryfallClient;
 import com.w1sh.medusa.rest.resources.Card;
 import com.w1sh.medusa.rest.resources.ListResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
-import org.springframework.util.StringUtils;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.function.Supplier;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Component
 public final class CardService {
 
     private static final Logger log = LoggerFactory.getLogger(CardService.class);
+    private static final int MAX_SUGGESTIONS = 5;
     private final ScryfallClient scryfallClient;
     private final CardCacheService cardCacheService;
+    private final CardIndexService cardIndexService;
+    private final CardNameService cardNameService;
 
-    public CardService(ScryfallClient scryfallClient, CardCacheService cardCacheService) {
+    public CardService(ScryfallClient scryfallClient, CardCacheService cardCacheService, CardIndexService cardIndexService,
+                       CardNameService cardNameService) {
         this.scryfallClient = scryfallClient;
         this.cardCacheService = cardCacheService;
+        this.cardIndexService = cardIndexService;
+        this.cardNameService = cardNameService;
     }
 
-    public Mono<Card> getCardByName(String name) {
-        return cardCacheService.getCardByName(name, () -> scryfallClient.getCardByName(name));
+    public Mono<Card> getCardByName(String query) {
+        return getCardByName(query, RequestPriority.INTERACTIVE, card -> {});
     }
 
-    public Mono<List<Card>> getCardsByName(String name) {
-        return scryfallClient.getCardsByName(name)
-                .doOnNext(response -> log.info("Retrieved {} cards with name similar to \"{}\"", response.getTotalCards(), name))
-                .flatMapIterable(ListResponse::getData)
-                .doOnNext(card -> cardCacheService.put(card.getName(), card))
-                .collectList();
+    public Mono<CardResult> findCardByName(String query) {
+        final AtomicBoolean fetched = new AtomicBoolean();
+        return getCardByName(query, RequestPriority.INTERACTIVE, card -> fetched.set(true))
+                .map(card -> new CardResult(card, !fetched.get() && !scryfallClient.isAvailable()));
     }
 
-    public Mono<List<Card>> getUniquePrintsByName(String name) {
-        final Supplier<Mono<List<Card>>> supplier = () -> scryfallClient.getCardByName(name)
-                .filter(card -> StringUtils.hasText(card.getUniquePrintsUri()))
-                .flatMap(card -> scryfallClient.getUniquePrints(card.getUniquePrintsUri()))
-                .filter(response -> !response.getData().isEmpty())
-                .doOnNext(response -> log.info("Retrieved {} unique prints for {}", response.getTotalCards(), response.getData().get(0).getName()))
-                .map(ListResponse::getData);
+    public Mono<List<Card>> prefetch(String query) {
+        return getCardByName(query, RequestPriority.BACKGROUND, card -> {})
+                .flatMap(card -> getUniquePrintsByName(card.getName()));
+    }
+
+    public Mono<Map<String, Card>> getCardsByIds(Collection<String> ids) {
+        final Set<String> uniqueIds = new LinkedHashSet<>(ids);
+        return Flux.fromIterable(uniqueIds)
+                .flatMap(id -> cardIndexService.getCardById(id)
+                        .switchIfEmpty(Mono.defer(() -> cardCacheService.getCardById(id))))
+                .collectMap(Card::getId)
+                .flatMap(cards -> {
+                    final List<String> missing = uniqueIds.stream()
+                            .filter(id -> !cards.containsKey(id))
+                            .collect(Collectors.toList());
+                    if (missing.isEmpty()) return Mono.just(cards);
+
+                    log.info("Resolved {} of {} cards locally, fetching the remaining from Scryfall", cards.size(), uniqueIds.size());
+                    return scryfallClient.getCardsByIds(missing)
+                            .doOnNext(this::cache)
+                            .collectMap(Card::getId, Function.identity(), () -> cards)
+                            .onErrorResume(t -> {
+                                // callers render the ids that couldn't be resolved, so a partial answer beats none
+                                log.warn("Failed to fetch {} cards from Scryfall, answering with the {} resolved so far", missing.size(), cards.size(), t);
+                                return Mono.just(cards);
+                            });
+                });
+    }
+
+    public Mono<ListResponse<Card>> getCardsByName(String name, int offset, int limit) {
+        return scryfallClient.getCardsByName(name, offset, limit)
+                .doOnNext(page -> log.info("Retrieved {} of {} cards with name similar to \"{}\"", page.getData().size(), page.getTotalCards(), name));
+    }
+
+    public Mono<ListResponse<Card>> getCardsPage(String uri, int offset, int limit) {
+        return scryfallClient.getCardsPage(uri, offset, limit);
+    }
+
+    public void cache(Collection<Card> cards) {
+        cards.forEach(this::cache);
+    }
+
+    public Mono<List<Card>> getUniquePrintsByName(String query) {
+        final String name = cardNameService.canonicalize(query).orElse(query);
+        return cardCacheService.getUniquePrintsByName(name, () -> scryfallClient.getUniquePrintsByName(name));
+    }
+
+    public List<String> suggestNames(String query) {
+        final List<String> suggestions = cardNameService.complete(query, MAX_SUGGESTIONS);
+        if (!suggestions.isEmpty()) return suggestions;
+        return cardNameService.resolve(query).map(List::of).orElse(List.of());
+    }
+
+    private Mono<Card> getCardByName(String query, RequestPriority priority, Consumer<Card> onFetched) {
+        final String name = cardNameService.canonicalize(query).orElse(query);
+        return cardIndexService.getCardByName(name)
+                .switchIfEmpty(Mono.defer(() -> cardCacheService.getCardByName(name, () -> scryfallClient.getCardByName(name, priority)
+                        .doOnNext(card -> cardNameService.register(card.getName()))
+                        .doOnNext(onFetched))));
+    }
 
-        return cardCacheService.getUniquePrintsByName(name, supplier);
+    private void cache(Card card) {
+        cardCacheService.put(card.getName(), card);
+        cardNameService.register(card.getName());
     }
 }
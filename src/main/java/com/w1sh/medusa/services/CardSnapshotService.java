@@ -0,0 +1,186 @@
+package com.w1sh.medusa.services;
+
+import com.w1sh.medusa.configurations.CacheProperties;
+import com.w1sh.medusa.hazelcast.serializers.CardSerializer;
+import com.w1sh.medusa.rest.resources.Card;
+import discord4j.common.JacksonResources;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import javax.annotation.PostConstruct;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@Service
+public final class CardSnapshotService {
+
+    private static final Logger log = LoggerFactory.getLogger(CardSnapshotService.class);
+    private static final int MAGIC = 0x4D445343;
+    // version 2 stores smile encoded card records, version 1 files hold json ones that the card serializer still reads
+    private static final int VERSION = 2;
+    private static final int MIN_VERSION = 1;
+
+    private final CardCacheService cardCacheService;
+    private final CardSerializer cardSerializer;
+    private final CacheProperties cacheProperties;
+
+    @Value("${medusa.cache.snapshot.file:}")
+    private String snapshotFile;
+    @Value("${medusa.cache.snapshot.interval:15}")
+    private String snapshotInterval;
+
+    public CardSnapshotService(CardCacheService cardCacheService, JacksonResources jacksonResources, CacheProperties cacheProperties) {
+        this.cardCacheService = cardCacheService;
+        this.cardSerializer = new CardSerializer(jacksonResources);
+        this.cacheProperties = cacheProperties;
+    }
+
+    @PostConstruct
+    private void init() {
+        if (!StringUtils.hasText(snapshotFile)) {
+            log.info("No card cache snapshot file configured, card cache will start cold");
+            return;
+        }
+        log.info("Registering periodic card cache snapshot to {} with interval of {} minutes", snapshotFile, snapshotInterval);
+        final long interval = Long.parseLong(snapshotInterval);
+        Schedulers.boundedElastic().schedulePeriodically(this::save, interval, interval, TimeUnit.MINUTES);
+    }
+
+    public Mono<Long> restore() {
+        if (!StringUtils.hasText(snapshotFile) || !Files.isRegularFile(Paths.get(snapshotFile))) return Mono.empty();
+        return read(Paths.get(snapshotFile))
+                .doOnNext(entry -> cardCacheService.restore(entry.name, entry.card, entry.age))
+                .count()
+                .subscribeOn(Schedulers.boundedElastic())
+                .doOnNext(count -> log.info("Restored {} card cache entries from snapshot {}", count, snapshotFile))
+                .onErrorResume(t -> Mono.fromRunnable(() -> log.error("Failed to restore card cache snapshot from {}", snapshotFile, t)));
+    }
+
+    public synchronized void save() {
+        if (!StringUtils.hasText(snapshotFile)) return;
+        final Path path = Paths.get(snapshotFile);
+        final Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        final Collection<Card> cards = cardCacheService.getCachedCards();
+        final Map<String, String> aliases = cardCacheService.getCachedAliases();
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+                 DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)))) {
+                output.writeInt(MAGIC);
+                output.writeInt(VERSION);
+                output.writeLong(Instant.now().toEpochMilli());
+                output.writeInt(cards.size());
+                for (Card card : cards) {
+                    final byte[] bytes = cardSerializer.write(card);
+                    output.writeInt(bytes.length);
+                    output.write(bytes);
+                }
+                output.writeInt(aliases.size());
+                for (Map.Entry<String, String> alias : aliases.entrySet()) {
+                    writeString(output, alias.getKey());
+                    writeString(output, alias.getValue());
+                }
+            }
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("Saved {} cards and {} aliases to card cache snapshot {}", cards.size(), aliases.size(), path);
+        } catch (IOException e) {
+            log.error("Failed to save card cache snapshot to {}", path, e);
+        }
+    }
+
+    private Flux<Entry> read(Path path) {
+        return Mono.fromCallable(() -> map(path)).flatMapMany(buffer -> {
+            if (buffer.remaining() < 20 || buffer.getInt() != MAGIC) {
+                return Flux.error(new IOException(String.format("%s is not a card cache snapshot", path)));
+            }
+            final int version = buffer.getInt();
+            if (version < MIN_VERSION || version > VERSION) {
+                log.warn("Ignoring card cache snapshot {} with unsupported version {}", path, version);
+                return Flux.empty();
+            }
+            final Instant takenOn = Instant.ofEpochMilli(buffer.getLong());
+            final Duration age = Duration.between(takenOn, Instant.now());
+            if (age.compareTo(cacheProperties.getStaleWindow()) > 0) {
+                log.warn("Ignoring card cache snapshot {} taken on {}, it is older than the stale window", path, takenOn);
+                return Flux.empty();
+            }
+            log.info("Restoring card cache snapshot {} taken on {}", path, takenOn);
+            final Map<String, Card> cardsById = new HashMap<>();
+            return Flux.range(0, buffer.getInt())
+                    .map(i -> readCard(buffer))
+                    .doOnNext(card -> cardsById.put(card.getId(), card))
+                    .map(card -> new Entry(card.getName(), card, age))
+                    .concatWith(Flux.defer(() -> Flux.range(0, buffer.getInt())
+                            .map(i -> {
+                                final String alias = readString(buffer);
+                                return new Entry(alias, cardsById.get(readString(buffer)), age);
+                            })
+                            .filter(entry -> entry.card != null)));
+        });
+    }
+
+    private static MappedByteBuffer map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    private Card readCard(ByteBuffer buffer) {
+        final byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        try {
+            return cardSerializer.read(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeString(DataOutputStream output, String value) throws IOException {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        final byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static final class Entry {
+
+        private final String name;
+        private final Card card;
+        private final Duration age;
+
+        private Entry(String name, Card card, Duration age) {
+            this.name = name;
+            this.card = card;
+            this.age = age;
+        }
+    }
+}
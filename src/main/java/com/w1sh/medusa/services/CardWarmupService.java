@@ -0,0 +1,71 @@
+package com.w1sh.medusa.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.concurrent.TimeUnit;
+
+@Service
+public final class CardWarmupService {
+
+    private static final Logger log = LoggerFactory.getLogger(CardWarmupService.class);
+    private static final int CONCURRENCY = 4;
+
+    private final SlashCommandService slashCommandService;
+    private final CardService cardService;
+
+    @Value("${medusa.cache.warmup.enabled:true}")
+    private String enabled;
+    @Value("${medusa.cache.warmup.window:7}")
+    private String window;
+    @Value("${medusa.cache.warmup.limit:200}")
+    private String limit;
+    @Value("${medusa.cache.warmup.delay:5}")
+    private String delay;
+    @Value("${medusa.cache.warmup.hour:5}")
+    private String offPeakHour;
+
+    public CardWarmupService(SlashCommandService slashCommandService, CardService cardService) {
+        this.slashCommandService = slashCommandService;
+        this.cardService = cardService;
+    }
+
+    @PostConstruct
+    private void init() {
+        if (!Boolean.parseBoolean(enabled)) {
+            log.info("Card cache warmup is disabled");
+            return;
+        }
+        log.info("Registering card cache warmup {} minutes after startup and daily at {}:00 UTC", delay, offPeakHour);
+        Schedulers.boundedElastic().schedule(() -> warmup().subscribe(), Long.parseLong(delay), TimeUnit.MINUTES);
+        Schedulers.boundedElastic().schedulePeriodically(() -> warmup().subscribe(), untilOffPeak().toMinutes(),
+                TimeUnit.DAYS.toMinutes(1), TimeUnit.MINUTES);
+    }
+
+    public Mono<Long> warmup() {
+        final Instant since = Instant.now().minus(Duration.ofDays(Long.parseLong(window)));
+        return slashCommandService.findTopCardNames(since, Integer.parseInt(limit))
+                .flatMap(name -> cardService.prefetch(name)
+                        .onErrorResume(t -> Mono.fromRunnable(() -> log.warn("Failed to prefetch card {}", name, t))), CONCURRENCY)
+                .count()
+                .doOnSubscribe(subscription -> log.info("Warming up card cache with the most requested cards of the last {} days", window))
+                .doOnNext(count -> log.info("Card cache warmup completed with {} cards prefetched", count));
+    }
+
+    private Duration untilOffPeak() {
+        final ZonedDateTime now = ZonedDateTime.now(ZoneOffset.UTC);
+        ZonedDateTime next = now.with(LocalTime.of(Integer.parseInt(offPeakHour), 0));
+        if (!next.isAfter(now)) next = next.plusDays(1);
+        return Duration.between(now, next);
+    }
+}
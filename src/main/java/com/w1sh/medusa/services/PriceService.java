@@ -0,0 +1,83 @@
+package com.w1sh.medusa.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.w1sh.medusa.rest.RequestPriority;
+import com.w1sh.medusa.rest.ScryfallClient;
+import com.w1sh.medusa.rest.resources.Card;
+import com.w1sh.medusa.rest.resources.Price;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+@Service
+public final class PriceService {
+
+    private static final Logger log = LoggerFactory.getLogger(PriceService.class);
+    private final ScryfallClient scryfallClient;
+    private final CardIndexService cardIndexService;
+    private final Cache<String, Price> prices;
+    private final Cache<String, LongAdder> hotIds;
+
+    @Value("${medusa.prices.refresh.interval:60}")
+    private String refreshInterval;
+    @Value("${medusa.prices.hot-ids.max:5000}")
+    private String maxHotIds;
+
+    public PriceService(ScryfallClient scryfallClient, CardIndexService cardIndexService) {
+        this.scryfallClient = scryfallClient;
+        this.cardIndexService = cardIndexService;
+        this.prices = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofDays(1))
+                .maximumSize(50_000)
+                .build();
+        this.hotIds = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofDays(1))
+                .maximumSize(50_000)
+                .build();
+    }
+
+    @PostConstruct
+    private void init() {
+        log.info("Registering periodic refresh of hot card prices with interval of {} minutes", refreshInterval);
+        final long interval = Long.parseLong(refreshInterval);
+        Schedulers.boundedElastic().schedulePeriodically(() -> refresh().subscribe(), interval, interval, TimeUnit.MINUTES);
+    }
+
+    // refreshed prices win over the bulk index, which wins over whatever price came with the cached card
+    public Mono<Price> getPrice(Card card) {
+        hotIds.get(card.getId(), id -> new LongAdder()).increment();
+        return Mono.justOrEmpty(prices.getIfPresent(card.getId()))
+                .switchIfEmpty(Mono.defer(() -> Mono.justOrEmpty(cardIndexService.getIndex().getPriceById(card.getId()))))
+                .switchIfEmpty(Mono.defer(() -> Mono.justOrEmpty(card.getPrice())))
+                .defaultIfEmpty(new Price());
+    }
+
+    public Mono<Long> refresh() {
+        // the most requested cards win when there are more hot ids than a refresh is allowed to fetch
+        final List<String> ids = hotIds.asMap().entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, LongAdder> entry) -> entry.getValue().sum()).reversed())
+                .limit(Integer.parseInt(maxHotIds))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+        if (ids.isEmpty()) return Mono.just(0L);
+        return scryfallClient.getCardsByIds(ids, RequestPriority.BACKGROUND)
+                .filter(card -> card.getPrice() != null)
+                .doOnNext(card -> prices.put(card.getId(), card.getPrice()))
+                .count()
+                .doOnNext(count -> log.info("Refreshed prices of {} hot cards", count))
+                .onErrorResume(t -> Mono.fromRunnable(() -> log.error("Failed to refresh prices of hot cards", t)));
+    }
+}
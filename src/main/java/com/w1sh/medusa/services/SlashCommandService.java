@@ -6,10 +6,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
 
 import javax.annotation.PostConstruct;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
@@ -48,6 +50,11 @@ public final class SlashCommandService {
                 .onErrorResume(t -> Mono.fromRunnable(() -> log.error("Failed to count all events", t)));
     }
 
+    public Flux<String> findTopCardNames(Instant since, int limit) {
+        return slashCommandRepository.findTopCardNames(since, limit)
+                .onErrorResume(t -> Mono.fromRunnable(() -> log.error("Failed to retrieve most requested card names", t)));
+    }
+
     private void scheduleBatchSave() {
         log.info("Registering periodically batch save of slash commands with delay of {} hours and interval of {} hours",
                 saveDelay, saveInterval);
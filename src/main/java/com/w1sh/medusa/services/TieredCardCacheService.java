@@ -0,0 +1,182 @@
+package com.w1sh.medusa.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hazelcast.core.EntryEvent;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import com.hazelcast.map.listener.EntryAddedListener;
+import com.hazelcast.map.listener.EntryEvictedListener;
+import com.hazelcast.map.listener.EntryExpiredListener;
+import com.hazelcast.map.listener.EntryRemovedListener;
+import com.hazelcast.map.listener.EntryUpdatedListener;
+import com.w1sh.medusa.configurations.CacheProperties;
+import com.w1sh.medusa.rest.ScryfallClient;
+import com.w1sh.medusa.rest.resources.Card;
+import com.w1sh.medusa.utils.Cards;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+@Component
+@ConditionalOnProperty(value = "medusa.cache.type", havingValue = "hazelcast")
+public final class TieredCardCacheService implements CardCacheService {
+
+    private static final Logger log = LoggerFactory.getLogger(TieredCardCacheService.class);
+    private final CaffeineCardCacheService l1;
+    private final IMap<String, Card> cards;
+    private final IMap<String, String> aliases;
+    private final IMap<String, List<Card>> uniquePrints;
+    private final InvalidationListener<Card> cardsListener;
+    private final InvalidationListener<List<Card>> uniquePrintsListener;
+
+    @Value("${medusa.cache.l2.cards.ttl:24}")
+    private String cardsTtl;
+    @Value("${medusa.cache.l2.unique-prints.ttl:6}")
+    private String uniquePrintsTtl;
+
+    public TieredCardCacheService(ObjectProvider<HazelcastInstance> hazelcastInstanceProvider, MeterRegistry meterRegistry,
+                                  ScryfallClient scryfallClient, CacheProperties cacheProperties) {
+        final HazelcastInstance hazelcastInstance = hazelcastInstanceProvider.getIfAvailable();
+        if (hazelcastInstance == null) {
+            log.error("Hazelcast card cache requires medusa.hazelcast.enabled=true!");
+            throw new IllegalStateException("medusa.cache.type=hazelcast requires medusa.hazelcast.enabled=true");
+        }
+        log.info("Setting up hazelcast backed card cache");
+        this.l1 = new CaffeineCardCacheService(meterRegistry, scryfallClient, cacheProperties);
+        this.cards = hazelcastInstance.getMap("cards");
+        this.aliases = hazelcastInstance.getMap("card-aliases");
+        this.uniquePrints = hazelcastInstance.getMap("unique-prints");
+        // listeners only need the key, shipping every written value to every node would cost more than the invalidation saves
+        this.cardsListener = new InvalidationListener<>(l1::invalidateCard);
+        this.uniquePrintsListener = new InvalidationListener<>(l1::invalidateUniquePrints);
+        this.cards.addEntryListener(cardsListener, false);
+        this.uniquePrints.addEntryListener(uniquePrintsListener, false);
+        this.l1.onRefresh(this::writeRefreshedCard, this::writeUniquePrints);
+    }
+
+    @Override
+    public void put(String name, Card card) {
+        l1.put(name, card);
+        writeCard(Cards.normalize(name), card);
+    }
+
+    @Override
+    public Mono<Card> getCardById(String id) {
+        return l1.getCardById(id)
+                .switchIfEmpty(Mono.defer(() -> Mono.fromCompletionStage(cards.getAsync(id)))
+                        .doOnNext(card -> l1.put(card.getName(), card)));
+    }
+
+    @Override
+    public Mono<Card> getCardByName(String name, Supplier<Mono<Card>> onCacheMissSupplier) {
+        final String key = Cards.normalize(name);
+        return l1.getCardByName(name, () -> Mono.fromCompletionStage(aliases.getAsync(key))
+                .flatMap(id -> Mono.fromCompletionStage(cards.getAsync(id)))
+                .switchIfEmpty(Mono.defer(onCacheMissSupplier)
+                        .doOnNext(card -> writeCard(key, card))));
+    }
+
+    @Override
+    public Mono<List<Card>> getUniquePrintsByName(String name, Supplier<Mono<List<Card>>> onCacheMissSupplier) {
+        final String key = Cards.normalize(name);
+        return l1.getUniquePrintsByName(name, () -> Mono.fromCompletionStage(uniquePrints.getAsync(key))
+                .switchIfEmpty(Mono.defer(onCacheMissSupplier)
+                        .doOnNext(prints -> writeUniquePrints(key, prints))));
+    }
+
+    @Override
+    public Collection<Card> getCachedCards() {
+        return l1.getCachedCards();
+    }
+
+    @Override
+    public Map<String, String> getCachedAliases() {
+        return l1.getCachedAliases();
+    }
+
+    @Override
+    public void restore(String name, Card card, Duration age) {
+        l1.restore(name, card, age);
+    }
+
+    // refreshes and 304 revalidations in l1 are written through, so other nodes see them and the l2 ttl starts over
+    private void writeRefreshedCard(Card card) {
+        cardsListener.onOwnWrite(card.getId());
+        cards.setAsync(card.getId(), card, Long.parseLong(cardsTtl), TimeUnit.HOURS);
+    }
+
+    private void writeUniquePrints(String key, List<Card> prints) {
+        uniquePrintsListener.onOwnWrite(key);
+        uniquePrints.setAsync(key, new ArrayList<>(prints), Long.parseLong(uniquePrintsTtl), TimeUnit.HOURS);
+    }
+
+    private void writeCard(String key, Card card) {
+        final long ttl = Long.parseLong(cardsTtl);
+        cardsListener.onOwnWrite(card.getId());
+        cards.setAsync(card.getId(), card, ttl, TimeUnit.HOURS);
+        aliases.setAsync(key, card.getId(), ttl, TimeUnit.HOURS);
+        aliases.setAsync(Cards.normalize(card.getName()), card.getId(), ttl, TimeUnit.HOURS);
+    }
+
+    private static final class InvalidationListener<V> implements EntryAddedListener<String, V>, EntryUpdatedListener<String, V>,
+            EntryRemovedListener<String, V>, EntryEvictedListener<String, V>, EntryExpiredListener<String, V> {
+
+        private final Consumer<String> invalidator;
+        private final Cache<String, Boolean> ownWrites;
+
+        private InvalidationListener(Consumer<String> invalidator) {
+            this.invalidator = invalidator;
+            this.ownWrites = Caffeine.newBuilder()
+                    .expireAfterWrite(Duration.ofSeconds(30))
+                    .build();
+        }
+
+        // a client is not a cluster member, so events are told apart by the keys this node has just written itself
+        private void onOwnWrite(String key) {
+            ownWrites.put(key, Boolean.TRUE);
+        }
+
+        // nothing can be cached for a key that was absent, an own insert only consumes its mark
+        @Override
+        public void entryAdded(EntryEvent<String, V> event) {
+            ownWrites.invalidate(event.getKey());
+        }
+
+        @Override
+        public void entryUpdated(EntryEvent<String, V> event) {
+            if (ownWrites.asMap().remove(event.getKey()) == null) {
+                invalidator.accept(event.getKey());
+            }
+        }
+
+        @Override
+        public void entryRemoved(EntryEvent<String, V> event) {
+            invalidator.accept(event.getKey());
+        }
+
+        @Override
+        public void entryEvicted(EntryEvent<String, V> event) {
+            invalidator.accept(event.getKey());
+        }
+
+        @Override
+        public void entryExpired(EntryEvent<String, V> event) {
+            invalidator.accept(event.getKey());
+        }
+    }
+}
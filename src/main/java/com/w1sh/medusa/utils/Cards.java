@@ -0,0 +1,20 @@
+package com.w1sh.medusa.utils;
+
+import java.util.Locale;
+
+public final class Cards {
+
+    public static final String FACE_SEPARATOR = " // ";
+
+    private Cards() {}
+
+    public static String normalize(String name) {
+        if (name == null) return "";
+        return name.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    public static String frontFace(String name) {
+        final int index = name.indexOf(FACE_SEPARATOR);
+        return index < 0 ? name : name.substring(0, index);
+    }
+}
@@ -1,9 +1,45 @@
 package com.w1sh.medusa.utils;
 
+import com.w1sh.medusa.rest.resources.ScryfallException;
+import com.w1sh.medusa.rest.resources.ScryfallNotFoundException;
+import reactor.core.Exceptions;
+
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
 public final class Messages {
 
     public static final String BULLET = "\u2022";
     public static final String ZERO_WIDTH_SPACE = "\u200E";
+    public static final String CARD_NOT_FOUND = "Failed to find the card you requested, be more specific or try another card.";
+    public static final String SCRYFALL_UNAVAILABLE = "Scryfall is currently unavailable and this card isn't cached, try again in a few minutes.";
+    public static final String SEARCH_UNAVAILABLE = "Scryfall is currently unavailable and searches can't be served from cache, try again in a few minutes.";
+    public static final String NO_SEARCH_RESULTS = "No cards match your search, try a different name.";
+    public static final String SERVED_FROM_CACHE = "Scryfall is currently unavailable, this card was served from cache and may be out of date.";
 
     private Messages(){}
+
+    public static String cardNotFound(List<String> suggestions) {
+        if (suggestions.isEmpty()) return CARD_NOT_FOUND;
+        return String.format("%s Did you mean %s?", CARD_NOT_FOUND, String.join(", ", suggestions));
+    }
+
+    public static boolean isScryfallError(Throwable error) {
+        final Throwable cause = unwrap(error);
+        return cause instanceof ScryfallException || cause instanceof TimeoutException;
+    }
+
+    // only a 404 means the card doesn't exist, saturation, outages and timeouts say nothing about the card
+    public static String scryfallError(Throwable error, Supplier<List<String>> suggestions) {
+        return unwrap(error) instanceof ScryfallNotFoundException ? cardNotFound(suggestions.get()) : SCRYFALL_UNAVAILABLE;
+    }
+
+    public static String searchError(Throwable error) {
+        return unwrap(error) instanceof ScryfallNotFoundException ? NO_SEARCH_RESULTS : SEARCH_UNAVAILABLE;
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return Exceptions.isRetryExhausted(error) && error.getCause() != null ? error.getCause() : error;
+    }
 }
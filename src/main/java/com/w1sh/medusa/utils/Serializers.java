@@ -1,7 +1,31 @@
 package com.w1sh.medusa.utils;
 
+import com.hazelcast.config.SerializationConfig;
 import com.hazelcast.config.SerializerConfig;
 import com.hazelcast.nio.serialization.ByteArraySerializer;
+import com.w1sh.medusa.hazelcast.serializers.CardSerializer;
+import com.w1sh.medusa.hazelcast.serializers.ChannelDataSerializer;
+import com.w1sh.medusa.hazelcast.serializers.GuildDataSerializer;
+import com.w1sh.medusa.hazelcast.serializers.LongLongTuple2Serializer;
+import com.w1sh.medusa.hazelcast.serializers.MemberDataSerializer;
+import com.w1sh.medusa.hazelcast.serializers.MessageDataSerializer;
+import com.w1sh.medusa.hazelcast.serializers.PresenceDataSerializer;
+import com.w1sh.medusa.hazelcast.serializers.RoleDataSerializer;
+import com.w1sh.medusa.hazelcast.serializers.UserDataSerializer;
+import com.w1sh.medusa.hazelcast.serializers.VoiceStateDataSerializer;
+import com.w1sh.medusa.rest.resources.Card;
+import discord4j.common.JacksonResources;
+import discord4j.discordjson.json.ChannelData;
+import discord4j.discordjson.json.GuildData;
+import discord4j.discordjson.json.MemberData;
+import discord4j.discordjson.json.MessageData;
+import discord4j.discordjson.json.PresenceData;
+import discord4j.discordjson.json.RoleData;
+import discord4j.discordjson.json.UserData;
+import discord4j.discordjson.json.VoiceStateData;
+import discord4j.store.api.util.LongLongTuple2;
+
+import java.util.List;
 
 public final class Serializers {
 
@@ -10,4 +34,20 @@ public final class Serializers {
     public static <T> SerializerConfig of(Class<T> clazz, ByteArraySerializer<T> serializer) {
         return new SerializerConfig().setTypeClass(clazz).setImplementation(serializer);
     }
-}
\ No newline at end of file
+
+    // cluster members deserialize store keys to maintain the sorted key index, so they must register the same serializers
+    public static SerializationConfig register(SerializationConfig config, JacksonResources jacksonResources) {
+        config.getSerializerConfigs().addAll(List.of(
+                of(MessageData.class, new MessageDataSerializer(jacksonResources)),
+                of(GuildData.class, new GuildDataSerializer(jacksonResources)),
+                of(Card.class, new CardSerializer(jacksonResources)),
+                of(MemberData.class, new MemberDataSerializer(jacksonResources)),
+                of(UserData.class, new UserDataSerializer(jacksonResources)),
+                of(ChannelData.class, new ChannelDataSerializer(jacksonResources)),
+                of(RoleData.class, new RoleDataSerializer(jacksonResources)),
+                of(PresenceData.class, new PresenceDataSerializer(jacksonResources)),
+                of(VoiceStateData.class, new VoiceStateDataSerializer(jacksonResources)),
+                of(LongLongTuple2.class, new LongLongTuple2Serializer())));
+        return config;
+    }
+}
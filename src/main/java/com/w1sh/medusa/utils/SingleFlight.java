@@ -0,0 +1,43 @@
+package com.w1sh.medusa.utils;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+public final class SingleFlight<K, V> {
+
+    private final Map<K, Mono<V>> inFlight;
+    private final Counter calls;
+    private final Counter coalesced;
+
+    public SingleFlight(MeterRegistry meterRegistry, String name) {
+        this.inFlight = new ConcurrentHashMap<>();
+        this.calls = Counter.builder("medusa.singleflight.calls")
+                .tag("name", name)
+                .register(meterRegistry);
+        this.coalesced = Counter.builder("medusa.singleflight.coalesced")
+                .tag("name", name)
+                .register(meterRegistry);
+        Gauge.builder("medusa.singleflight.inflight", inFlight, Map::size)
+                .tag("name", name)
+                .register(meterRegistry);
+    }
+
+    public Mono<V> execute(K key, Supplier<Mono<V>> supplier) {
+        return Mono.defer(() -> {
+            calls.increment();
+            final Mono<V> call = Mono.defer(supplier).cache();
+            final Mono<V> existing = inFlight.putIfAbsent(key, call);
+            if (existing != null) {
+                coalesced.increment();
+                return existing;
+            }
+            return call.doFinally(signal -> inFlight.remove(key, call));
+        });
+    }
+}